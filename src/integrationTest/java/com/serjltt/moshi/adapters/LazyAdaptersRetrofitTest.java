@@ -59,6 +59,15 @@ public final class LazyAdaptersRetrofitTest {
         + "}", "works!");
   }
 
+  @Test public void unwrapStopAfterMatch() throws Exception {
+    // The trailing part of the body is malformed, reading it would fail the call.
+    assertResponse(service.unwrapStopAfterMatch(), "{\n"
+        + "  \"one\": {\n"
+        + "    \"two\": \"works!\"\n"
+        + "  },\n"
+        + "  \"included\": [{\"not\": \"read\"\n", "works!");
+  }
+
   @Test public void unwrapNestedJsonAdapter() throws Exception {
     server.enqueue(new MockResponse().setBody("{\n"
         + " \"one\": {\n"
@@ -131,6 +140,9 @@ public final class LazyAdaptersRetrofitTest {
     @GET("/")
     @Wrapped(path = {"one", "two"}) Call<String> unwrap();
 
+    @GET("/")
+    @Wrapped(path = {"one", "two"}, stopAfterMatch = true) Call<String> unwrapStopAfterMatch();
+
     @GET("/")
     @Wrapped(path = {"one", "two"}) Call<Nested> unwrapNested();
 
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016 Serj Lotutovici
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.serjltt.moshi.adapters;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonDataException;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The recursive implementation of {@link WrappedJsonAdapter#fromJson(JsonReader)}, as it was
+ * before the descent became iterative. Kept only as a baseline for {@link WrappedBenchmark}.
+ */
+final class RecursiveWrappedJsonAdapter<T> extends JsonAdapter<T> {
+  private final JsonAdapter<T> delegate;
+  private final String[] path;
+  private final JsonReader.Options[] options;
+  private final boolean failOnNotFound;
+
+  RecursiveWrappedJsonAdapter(JsonAdapter<T> delegate, String[] path, boolean failOnNotFound) {
+    this.delegate = delegate;
+    this.path = path;
+    this.failOnNotFound = failOnNotFound;
+    this.options = new JsonReader.Options[path.length];
+    for (int i = 0; i < path.length; i++) {
+      options[i] = JsonReader.Options.of(path[i]);
+    }
+  }
+
+  @Override public T fromJson(JsonReader reader) throws IOException {
+    return fromJson(delegate, reader, path, options, 0, failOnNotFound);
+  }
+
+  @Override public void toJson(JsonWriter writer, T value) throws IOException {
+    throw new UnsupportedOperationException();
+  }
+
+  private static <T> T fromJson(JsonAdapter<T> adapter, JsonReader reader, String[] path,
+      JsonReader.Options[] options, int index, boolean failOnNotFound) throws IOException {
+    if (index == path.length) {
+      return adapter.fromJson(reader);
+    } else {
+      reader.beginObject();
+      Exception caughtException = null;
+      try {
+        JsonReader.Options root = options[index];
+        while (reader.hasNext()) {
+          if (reader.selectName(root) == 0) {
+            if (reader.peek() == JsonReader.Token.NULL) {
+              if (failOnNotFound) {
+                throw new JsonDataException(String.format(
+                    "Wrapped Json expected at path: %s. Found null at %s",
+                    Arrays.asList(path), reader.getPath()
+                ));
+              }
+
+              return reader.nextNull();
+            }
+            return fromJson(adapter, reader, path, options, ++index, failOnNotFound);
+          } else {
+            reader.skipValue();
+            reader.skipValue();
+          }
+        }
+      } catch (Exception e) {
+        caughtException = e;
+      } finally {
+        if (caughtException instanceof IOException) {
+          //noinspection ThrowFromFinallyBlock
+          throw (IOException) caughtException;
+        } else if (caughtException instanceof JsonDataException) {
+          //noinspection ThrowFromFinallyBlock
+          throw (JsonDataException) caughtException;
+        } else if (caughtException != null) {
+          //noinspection ThrowFromFinallyBlock
+          throw new AssertionError(caughtException);
+        }
+        while (reader.hasNext()) {
+          reader.skipValue();
+        }
+        reader.endObject();
+      }
+      throw new JsonDataException(String.format(
+          "Wrapped Json expected at path: %s. Actual: %s",
+          Arrays.asList(path), reader.getPath()));
+    }
+  }
+}
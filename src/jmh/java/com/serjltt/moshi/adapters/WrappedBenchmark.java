@@ -0,0 +1,77 @@
+/*
+ * Copyright 2016 Serj Lotutovici
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.serjltt.moshi.adapters;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.Moshi;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import okio.Buffer;
+import okio.ByteString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares the iterative {@link WrappedJsonAdapter} with the former recursive implementation
+ * for path depths 1 through 8. Every envelope level has sibling keys before and after the
+ * wrapped one, so both descending and draining are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WrappedBenchmark {
+  @Param({ "1", "2", "3", "4", "5", "6", "7", "8" })
+  int depth;
+
+  private ByteString json;
+  private JsonAdapter<Object> iterative;
+  private JsonAdapter<Object> recursive;
+
+  @Setup public void setup() {
+    String[] path = new String[depth];
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < depth; i++) {
+      path[i] = "level" + i;
+      builder.append("{\"meta\":{\"id\":").append(i).append(",\"tags\":[\"a\",\"b\"]},")
+          .append("\"").append(path[i]).append("\":");
+    }
+    builder.append("\"value\"");
+    for (int i = 0; i < depth; i++) {
+      builder.append(",\"paging\":{\"next\":null,\"count\":42}}");
+    }
+    json = ByteString.encodeUtf8(builder.toString());
+
+    JsonAdapter<Object> delegate = new Moshi.Builder().build().adapter(Object.class);
+    iterative = new WrappedJsonAdapter<>(delegate, JsonPathPlan.compile(path), true, false,
+        "wrapped");
+    recursive = new RecursiveWrappedJsonAdapter<>(delegate, path, true);
+  }
+
+  @Benchmark public Object iterative() throws IOException {
+    return iterative.fromJson(JsonReader.of(new Buffer().write(json)));
+  }
+
+  @Benchmark public Object recursive() throws IOException {
+    return recursive.fromJson(JsonReader.of(new Buffer().write(json)));
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016 Serj Lotutovici
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.serjltt.moshi.adapters;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonQualifier;
+import com.squareup.moshi.Moshi;
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static com.serjltt.moshi.adapters.Util.nextAnnotations;
+
+/**
+ * Indicates that the annotated type/field should fallback to a default value, in case its json
+ * does not match the expected type. The default values are built by the {@link Supplier}s of a
+ * {@link Registry}, once, on the first mismatch of the respective type.
+ *
+ * <p>To leverage from {@link DefaultOnDataMismatch} the factory of a {@link Registry} must be
+ * added to your {@linkplain Moshi Moshi instance}:
+ *
+ * <pre><code>
+ *   Moshi moshi = new Moshi.Builder()
+ *      .add(new DefaultOnDataMismatch.Registry()
+ *          .register(Fruit.class, new DefaultOnDataMismatch.Supplier&lt;Fruit&gt;() {
+ *            {@literal @}Override public Fruit get() {
+ *              return Fruit.UNKNOWN;
+ *            }
+ *          })
+ *          .newFactory())
+ *      .build();
+ * </code></pre>
+ *
+ * Unlike {@link DefaultOnDataMismatchAdapter#newFactory(Type, Object)}, a single factory serves
+ * all registered types.
+ */
+@Documented
+@JsonQualifier
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.FIELD, ElementType.METHOD, ElementType.ANNOTATION_TYPE })
+public @interface DefaultOnDataMismatch {
+  /** Builds the default value of a type. */
+  interface Supplier<T> {
+    T get();
+  }
+
+  /** Holds the {@link Supplier}s of the default values, by type. */
+  final class Registry {
+    private final Map<Type, Supplier<?>> suppliers = new HashMap<>();
+
+    /**
+     * Registers the supplier of the default value of {@code type}. The supplier is invoked at most
+     * once, by the first adapter that encounters a mismatch.
+     */
+    public <T> Registry register(Type type, Supplier<? extends T> supplier) {
+      if (type == null) throw new NullPointerException("type == null");
+      if (supplier == null) throw new NullPointerException("supplier == null");
+      suppliers.put(type, DefaultOnDataMismatchAdapter.memoize(supplier));
+      return this;
+    }
+
+    /**
+     * Builds an adapter factory, that can process types annotated with
+     * {@link DefaultOnDataMismatch}. The types must have been registered before.
+     */
+    public JsonAdapter.Factory newFactory() {
+      final Map<Type, Supplier<?>> suppliers = new HashMap<>(this.suppliers);
+      return new JsonAdapter.Factory() {
+        @Override public JsonAdapter<?> create(Type type, Set<? extends Annotation> annotations,
+            Moshi moshi) {
+          Pair<DefaultOnDataMismatch, Set<Annotation>> nextAnnotations =
+              nextAnnotations(annotations, DefaultOnDataMismatch.class);
+          if (nextAnnotations == null) return null;
+
+          Supplier<?> supplier = suppliers.get(type);
+          if (supplier == null) {
+            throw new IllegalArgumentException(
+                "No default value registered for " + type + " annotated with "
+                    + "@DefaultOnDataMismatch.");
+          }
+          return new DefaultOnDataMismatchAdapter<>(moshi.adapter(type, nextAnnotations.second),
+              supplier, Long.MAX_VALUE);
+        }
+      };
+    }
+  }
+}
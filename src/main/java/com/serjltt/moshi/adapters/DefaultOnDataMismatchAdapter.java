@@ -25,26 +25,52 @@ import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import okio.Buffer;
 
 /**
  * Adapter that fallbacks to a default value in case there's a mismatch.
+ *
+ * <p>A mismatch is detected by the {@link JsonDataException} of the delegate. A delegate qualified
+ * with {@link Wrapped} or {@link JsonPath} reports a missing path without an exception, so that
+ * no stack trace is captured for it.
  */
 public final class DefaultOnDataMismatchAdapter<T> extends JsonAdapter<T> {
   private final JsonAdapter<T> delegate;
-  private final T defaultValue;
+  /** The delegate, if it can report a missing path without an exception, or null. */
+  private final WrappedJsonAdapter<T> wrapped;
+  private final DefaultOnDataMismatch.Supplier<? extends T> defaultValue;
+  private final long maxBufferedBytes;
+  private final AtomicLong overflowCount = new AtomicLong();
 
-  DefaultOnDataMismatchAdapter(JsonAdapter<T> delegate, T defaultValue) {
+  DefaultOnDataMismatchAdapter(JsonAdapter<T> delegate,
+      DefaultOnDataMismatch.Supplier<? extends T> defaultValue, long maxBufferedBytes) {
     this.delegate = delegate;
+    this.wrapped = delegate instanceof WrappedJsonAdapter
+        ? (WrappedJsonAdapter<T>) delegate : null;
     this.defaultValue = defaultValue;
+    this.maxBufferedBytes = maxBufferedBytes;
   }
 
   @Override public T fromJson(JsonReader reader) throws IOException {
-    Object jsonValue = reader.readJsonValue();
+    // Copy the json of the value, so that the delegate can fail without affecting the reader.
+    Buffer buffer = new Buffer();
+    if (!Util.copyValue(reader, buffer, maxBufferedBytes)) {
+      // The value was too large to be buffered and was skipped.
+      overflowCount.incrementAndGet();
+      return defaultValue.get();
+    }
 
     try {
-      return delegate.fromJsonValue(jsonValue);
+      if (wrapped == null) return delegate.fromJson(Util.newReader(buffer, reader));
+
+      Object value = wrapped.fromJsonOrNotFound(Util.newReader(buffer, reader));
+      if (value == JsonPathPlan.NOT_FOUND) return defaultValue.get();
+      @SuppressWarnings("unchecked") // The value was read by the delegate of a T.
+      T result = (T) value;
+      return result;
     } catch (JsonDataException ignore) {
-      return defaultValue;
+      return defaultValue.get();
     }
   }
 
@@ -52,22 +78,81 @@ public final class DefaultOnDataMismatchAdapter<T> extends JsonAdapter<T> {
     delegate.toJson(writer, value);
   }
 
+  /**
+   * Returns the number of values, that exceeded the maximum buffered size and therefore
+   * fell back to the default value.
+   */
+  public long overflowCount() {
+    return overflowCount.get();
+  }
+
   @Override public String toString() {
     return delegate + ".defaultOnDatMisMatch(" + defaultValue + ')';
   }
 
   /** Builds an adapter that fallbacks to a default value in case there's a mismatch. */
   public static <T> JsonAdapter.Factory newFactory(final Type type, final T defaultValue) {
+    return newFactory(type, defaultValue, Long.MAX_VALUE);
+  }
+
+  /**
+   * Builds an adapter that fallbacks to a default value in case there's a mismatch. Values, which
+   * json takes more than {@code maxBufferedBytes}, are skipped and fallback to the default value
+   * as well. See {@link #overflowCount()}.
+   */
+  public static <T> JsonAdapter.Factory newFactory(final Type type, final T defaultValue,
+      final long maxBufferedBytes) {
+    if (maxBufferedBytes <= 0) {
+      throw new IllegalArgumentException("maxBufferedBytes must be positive: " + maxBufferedBytes);
+    }
     return new Factory() {
       @Override public JsonAdapter<?> create(Type requestedType,
           Set<? extends Annotation> annotations, Moshi moshi) {
         if (Types.equals(type, requestedType)) {
           JsonAdapter<T> delegate = moshi.nextAdapter(this, type, annotations);
-          return new DefaultOnDataMismatchAdapter<>(delegate, defaultValue);
+          return new DefaultOnDataMismatchAdapter<>(delegate, constant(defaultValue),
+              maxBufferedBytes);
         }
 
         return null;
       }
     };
   }
+
+  private static <T> DefaultOnDataMismatch.Supplier<T> constant(final T value) {
+    return new DefaultOnDataMismatch.Supplier<T>() {
+      @Override public T get() {
+        return value;
+      }
+
+      @Override public String toString() {
+        return String.valueOf(value);
+      }
+    };
+  }
+
+  /** Returns a supplier, that invokes {@code supplier} once and retains its value. */
+  static <T> DefaultOnDataMismatch.Supplier<T> memoize(
+      final DefaultOnDataMismatch.Supplier<? extends T> supplier) {
+    return new DefaultOnDataMismatch.Supplier<T>() {
+      private volatile boolean built;
+      private T value;
+
+      @Override public T get() {
+        if (!built) {
+          synchronized (this) {
+            if (!built) {
+              value = supplier.get();
+              built = true;
+            }
+          }
+        }
+        return value;
+      }
+
+      @Override public String toString() {
+        return built ? String.valueOf(value) : "lazy";
+      }
+    };
+  }
 }
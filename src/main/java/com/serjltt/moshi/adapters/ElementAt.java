@@ -76,6 +76,9 @@ public @interface ElementAt {
    * Represents the index location at which the element will be expected to be.
    * If the size of the array will be less then the provided index,
    * the companion adapter will return {@code null}.
+   *
+   * <p>A negative index counts from the end of the array, {@code -1} being the last element.
+   * Only the json of the last {@code |index|} elements is retained while reading the array.
    */
   int index();
 
@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.Collections;
 import java.util.List;
+import okio.Buffer;
 
 /**
  * {@linkplain JsonAdapter} that extracts the element at the given index
@@ -32,18 +33,38 @@ import java.util.List;
  */
 final class ElementAtJsonAdapter<T> extends JsonAdapter<T> {
   private final JsonAdapter<List<T>> delegate;
+  private final JsonAdapter<T> elementAdapter;
   private final int index;
 
   ElementAtJsonAdapter(Type type, Moshi moshi, int index) {
     Type listType = Types.newParameterizedType(List.class, type);
     delegate = moshi.adapter(listType);
+    elementAdapter = moshi.adapter(type);
     this.index = index;
   }
 
   @Override public T fromJson(JsonReader reader) throws IOException {
-    List<T> fromJson = delegate.fromJson(reader);
-    if (fromJson != null && index < fromJson.size()) return fromJson.get(index);
-    return null;
+    if (reader.peek() == JsonReader.Token.NULL) return reader.nextNull();
+
+    T element = null;
+    reader.beginArray();
+    if (index < 0) {
+      // Only the json of the last |index| elements is retained, and just one of them decoded.
+      Buffer buffer = Util.bufferFromEnd(reader, -index);
+      reader.endArray();
+      return buffer != null ? elementAdapter.fromJson(Util.newReader(buffer, reader)) : null;
+    }
+
+    // Only the element at the index is decoded, all other elements are skipped if possible.
+    for (int i = 0; reader.hasNext(); i++) {
+      if (i == index) {
+        element = elementAdapter.fromJson(reader);
+      } else {
+        Util.skipValue(reader, elementAdapter);
+      }
+    }
+    reader.endArray();
+    return element;
   }
 
   @Override public void toJson(JsonWriter writer, T value) throws IOException {
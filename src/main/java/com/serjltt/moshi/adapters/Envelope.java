@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016 Serj Lotutovici
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.serjltt.moshi.adapters;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import com.squareup.moshi.Types;
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Type;
+import java.util.Set;
+
+/**
+ * Indicates that the annotated class is an envelope, from which all fields are projected in a
+ * single pass over the json source. The {@link Wrapped#path()} of a field in an envelope is the
+ * path from the root of the envelope, field names are not part of it. Fields without
+ * {@link Wrapped} are read from the key of their name, like Moshi does by default.
+ *
+ * <p>For example if a json object is:
+ * <pre>
+ *   {
+ *     "meta": {...},
+ *     "data": {
+ *       "user": {...},
+ *       "stats": {...}
+ *     }
+ *   }
+ * </pre>
+ * Both the {@code user} and the {@code stats} can be projected into one class:
+ *
+ * <pre><code>
+ *   {@literal @}Envelope class UserResponse {
+ *     {@literal @}Wrapped(path = {"data", "user"}) User user;
+ *     {@literal @}Wrapped(path = {"data", "stats"}) Stats stats;
+ *   }
+ * </code></pre>
+ *
+ * The paths of all fields are merged into a tree, so the {@code data} object is tokenized once,
+ * regardless of the number of projected fields. Paths may only contain object keys, and no path
+ * may be the prefix of another one. An envelope class must declare a no-arg constructor.
+ *
+ * <p>To leverage from {@link Envelope} {@link Envelope#ADAPTER_FACTORY} must be added to
+ * your {@linkplain Moshi moshi instance}:
+ *
+ * <pre><code>
+ *   Moshi moshi = new Moshi.Builder()
+ *      .add(Envelope.ADAPTER_FACTORY)
+ *      .build();
+ * </code></pre>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Envelope {
+  /** Builds an adapter that can process classes annotated with {@link Envelope}. */
+  JsonAdapter.Factory ADAPTER_FACTORY = new JsonAdapter.Factory() {
+    @Override public JsonAdapter<?> create(Type type, Set<? extends Annotation> annotations,
+        Moshi moshi) {
+      if (!annotations.isEmpty()) return null;
+
+      Class<?> rawType = Types.getRawType(type);
+      if (!rawType.isAnnotationPresent(Envelope.class)) return null;
+
+      return EnvelopeJsonAdapter.create(rawType, moshi).nullSafe();
+    }
+  };
+}
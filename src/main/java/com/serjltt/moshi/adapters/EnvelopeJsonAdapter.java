@@ -0,0 +1,348 @@
+/*
+ * Copyright 2016 Serj Lotutovici
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.serjltt.moshi.adapters;
+
+import com.squareup.moshi.Json;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonDataException;
+import com.squareup.moshi.JsonQualifier;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
+import com.squareup.moshi.Moshi;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@linkplain JsonAdapter} that reads all fields of a class annotated with {@linkplain Envelope}
+ * in one pass, by merging the paths of the fields into a tree of json objects.
+ */
+final class EnvelopeJsonAdapter<T> extends JsonAdapter<T> {
+  private final Class<T> type;
+  private final Constructor<T> constructor;
+  private final Node root;
+  private final Binding[] bindings;
+
+  private EnvelopeJsonAdapter(Class<T> type, Constructor<T> constructor, Node root,
+      Binding[] bindings) {
+    this.type = type;
+    this.constructor = constructor;
+    this.root = root;
+    this.bindings = bindings;
+  }
+
+  static <T> EnvelopeJsonAdapter<T> create(Class<T> type, Moshi moshi) {
+    if (type.getTypeParameters().length > 0) {
+      throw new IllegalArgumentException("Envelope " + type + " must not be generic.");
+    }
+    Constructor<T> constructor;
+    try {
+      constructor = type.getDeclaredConstructor();
+      constructor.setAccessible(true);
+    } catch (NoSuchMethodException e) {
+      throw new IllegalArgumentException(
+          "Envelope " + type + " must declare a no-arg constructor.");
+    }
+
+    Map<String, Object> tree = new LinkedHashMap<>();
+    List<Binding> bindings = new ArrayList<>();
+    for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+      for (Field field : c.getDeclaredFields()) {
+        int modifiers = field.getModifiers();
+        if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) continue;
+        if (field.isSynthetic()) continue;
+
+        Set<Annotation> qualifiers = new LinkedHashSet<>();
+        for (Annotation annotation : field.getAnnotations()) {
+          if (annotation.annotationType().isAnnotationPresent(JsonQualifier.class)) {
+            qualifiers.add(annotation);
+          }
+        }
+
+        String[] path;
+        String[] keys;
+        boolean failOnNotFound = false;
+        boolean stacklessFailures = false;
+        Pair<Wrapped, Set<Annotation>> wrapped = Util.nextAnnotations(qualifiers, Wrapped.class);
+        if (wrapped != null) {
+          path = wrapped.first.path();
+          failOnNotFound = wrapped.first.failOnNotFound();
+          stacklessFailures = wrapped.first.stacklessFailures();
+          qualifiers = wrapped.second;
+          if (path.length == 0) {
+            throw new IllegalArgumentException("Wrapped path of " + field + " is empty.");
+          }
+          keys = new String[path.length];
+          for (int i = 0; i < path.length; i++) {
+            if (!JsonPathPlan.isObjectKey(path[i])) {
+              throw new IllegalArgumentException("Wrapped path " + Arrays.asList(path) + " of "
+                  + field + " may only contain object keys.");
+            }
+            keys[i] = JsonPathPlan.objectKey(path[i]);
+          }
+        } else {
+          Json json = field.getAnnotation(Json.class);
+          path = new String[] { json != null ? json.name() : field.getName() };
+          keys = path;
+        }
+
+        field.setAccessible(true);
+        JsonAdapter<Object> adapter = moshi.adapter(field.getGenericType(), qualifiers);
+        Binding binding = new Binding(bindings.size(), field, adapter,
+            wrapped != null ? path : null, failOnNotFound, stacklessFailures);
+        bindings.add(binding);
+        insert(tree, binding, keys, type);
+      }
+    }
+
+    return new EnvelopeJsonAdapter<>(type, constructor, freeze(tree),
+        bindings.toArray(new Binding[bindings.size()]));
+  }
+
+  @Override public T fromJson(JsonReader reader) throws IOException {
+    T result = newInstance();
+    boolean[] found = new boolean[bindings.length];
+    read(reader, root, result, found);
+
+    for (Binding binding : bindings) {
+      if (binding.path != null && !found[binding.index]) {
+        if (binding.notFoundMessage != null) {
+          throw Util.stacklessException(binding.notFoundMessage);
+        }
+        throw new JsonDataException(String.format("Wrapped Json expected at path: %s. Actual: %s",
+            Arrays.asList(binding.path), reader.getPath()));
+      }
+    }
+    return result;
+  }
+
+  @Override public void toJson(JsonWriter writer, T value) throws IOException {
+    write(writer, root, value);
+  }
+
+  @Override public String toString() {
+    return "JsonAdapter(" + type.getName() + ").envelope()";
+  }
+
+  private void read(JsonReader reader, Node node, Object target, boolean[] found)
+      throws IOException {
+    reader.beginObject();
+    while (reader.hasNext()) {
+      int index = reader.selectName(node.options);
+      if (index == -1) {
+        // Skip both the unmatched name and its value.
+        reader.skipValue();
+        reader.skipValue();
+        continue;
+      }
+
+      Binding leaf = node.leaves[index];
+      Node child = node.children[index];
+      if (leaf != null) {
+        if (leaf.path != null && reader.peek() == JsonReader.Token.NULL) {
+          foundNull(reader, leaf, target, found);
+          reader.nextNull();
+        } else {
+          leaf.set(target, leaf.adapter.fromJson(reader));
+          found[leaf.index] = true;
+        }
+      } else if (reader.peek() == JsonReader.Token.NULL) {
+        for (Binding binding : child.bindings) {
+          foundNull(reader, binding, target, found);
+        }
+        reader.nextNull();
+      } else {
+        read(reader, child, target, found);
+      }
+    }
+    reader.endObject();
+  }
+
+  /** Handles a null value at, or on the way to, the path of a wrapped {@code binding}. */
+  private static void foundNull(JsonReader reader, Binding binding, Object target,
+      boolean[] found) {
+    // Consumer expects a value, not a null.
+    if (binding.failOnNotFound) {
+      if (binding.foundNullMessage != null) {
+        throw Util.stacklessException(binding.foundNullMessage);
+      }
+      throw new JsonDataException(String.format(
+          "Wrapped Json expected at path: %s. Found null at %s",
+          Arrays.asList(binding.path), reader.getPath()));
+    }
+    if (!binding.field.getType().isPrimitive()) {
+      binding.set(target, null);
+    }
+    found[binding.index] = true;
+  }
+
+  private void write(JsonWriter writer, Node node, Object value) throws IOException {
+    writer.beginObject();
+    for (int i = 0; i < node.names.length; i++) {
+      Binding leaf = node.leaves[i];
+      if (leaf != null) {
+        writer.name(node.names[i]);
+        leaf.adapter.toJson(writer, leaf.get(value));
+      } else if (writer.getSerializeNulls() || hasValue(node.children[i], value)) {
+        writer.name(node.names[i]);
+        write(writer, node.children[i], value);
+      }
+    }
+    writer.endObject();
+  }
+
+  /** Returns true if any field under {@code node} is not null. */
+  private static boolean hasValue(Node node, Object value) {
+    for (Binding binding : node.bindings) {
+      if (binding.get(value) != null) return true;
+    }
+    return false;
+  }
+
+  private T newInstance() {
+    try {
+      return constructor.newInstance();
+    } catch (InstantiationException | IllegalAccessException e) {
+      throw new AssertionError(e);
+    } catch (InvocationTargetException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+      if (cause instanceof Error) throw (Error) cause;
+      throw new RuntimeException(cause);
+    }
+  }
+
+  /** Adds {@code binding} to the tree of names, at the given {@code path}. */
+  private static void insert(Map<String, Object> tree, Binding binding, String[] path,
+      Class<?> type) {
+    Map<String, Object> node = tree;
+    for (int i = 0; i < path.length; i++) {
+      Object existing = node.get(path[i]);
+      if (existing instanceof Binding || (existing != null && i == path.length - 1)) {
+        throw new IllegalArgumentException("Envelope " + type + " declares conflicting paths for "
+            + binding.field + " and " + (existing instanceof Binding
+            ? ((Binding) existing).field : "other fields") + '.');
+      }
+      if (i == path.length - 1) {
+        node.put(path[i], binding);
+      } else {
+        if (existing == null) {
+          existing = new LinkedHashMap<String, Object>();
+          node.put(path[i], existing);
+        }
+        @SuppressWarnings("unchecked") // Only maps and bindings are put in the tree.
+        Map<String, Object> child = (Map<String, Object>) existing;
+        node = child;
+      }
+    }
+  }
+
+  private static Node freeze(Map<String, Object> tree) {
+    int size = tree.size();
+    String[] names = tree.keySet().toArray(new String[size]);
+    Node[] children = new Node[size];
+    Binding[] leaves = new Binding[size];
+    List<Binding> bindings = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      Object value = tree.get(names[i]);
+      if (value instanceof Binding) {
+        leaves[i] = (Binding) value;
+        bindings.add(leaves[i]);
+      } else {
+        @SuppressWarnings("unchecked") // Only maps and bindings are put in the tree.
+        Map<String, Object> child = (Map<String, Object>) value;
+        children[i] = freeze(child);
+        Collections.addAll(bindings, children[i].bindings);
+      }
+    }
+    return new Node(names, children, leaves, bindings.toArray(new Binding[bindings.size()]));
+  }
+
+  /** An object in the envelope, its names lead either to another object or to a field. */
+  private static final class Node {
+    final String[] names;
+    final JsonReader.Options options;
+    final Node[] children;
+    final Binding[] leaves;
+    /** All fields at or below this object. */
+    final Binding[] bindings;
+
+    Node(String[] names, Node[] children, Binding[] leaves, Binding[] bindings) {
+      this.names = names;
+      this.options = JsonReader.Options.of(names);
+      this.children = children;
+      this.leaves = leaves;
+      this.bindings = bindings;
+    }
+  }
+
+  /** A field of the envelope and the adapter of its value. */
+  private static final class Binding {
+    final int index;
+    final Field field;
+    final JsonAdapter<Object> adapter;
+    /** The path of a {@linkplain Wrapped wrapped} field, or null. */
+    final String[] path;
+    final boolean failOnNotFound;
+    /** The precomputed failure messages of a {@link Wrapped#stacklessFailures()} field, or null. */
+    final String notFoundMessage;
+    final String foundNullMessage;
+
+    Binding(int index, Field field, JsonAdapter<Object> adapter, String[] path,
+        boolean failOnNotFound, boolean stacklessFailures) {
+      this.index = index;
+      this.field = field;
+      this.adapter = adapter;
+      this.path = path;
+      this.failOnNotFound = failOnNotFound;
+      if (stacklessFailures) {
+        String expectation = "Wrapped Json expected at path: " + Arrays.asList(path);
+        this.notFoundMessage = expectation + ". Not found";
+        this.foundNullMessage = expectation + ". Found null";
+      } else {
+        this.notFoundMessage = null;
+        this.foundNullMessage = null;
+      }
+    }
+
+    Object get(Object target) {
+      try {
+        return field.get(target);
+      } catch (IllegalAccessException e) {
+        throw new AssertionError(e);
+      }
+    }
+
+    void set(Object target, Object value) {
+      try {
+        field.set(target, value);
+      } catch (IllegalAccessException e) {
+        throw new AssertionError(e);
+      }
+    }
+  }
+}
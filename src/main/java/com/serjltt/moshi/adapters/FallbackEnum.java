@@ -17,15 +17,11 @@ package com.serjltt.moshi.adapters;
 
 import com.squareup.moshi.JsonAdapter;
 import com.squareup.moshi.Moshi;
-import com.squareup.moshi.Types;
-import java.lang.annotation.Annotation;
 import java.lang.annotation.Documented;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
-import java.lang.reflect.Type;
-import java.util.Set;
 
 /**
  * Indicates that the annotated enum has a fallback value. The fallback must be set via
@@ -40,6 +36,18 @@ import java.util.Set;
  *      .add(FallbackEnum.ADAPTER_FACTORY)
  *      .build();
  * </code></pre>
+ *
+ * <p>Use {@link Factory#create(UnknownValueListener)} instead to find out which values were
+ * not matched, for example with an {@link UnknownEnumValueSketch}.
+ *
+ * <p>Additional spellings of a constant can be declared with {@link Alias}. Setting
+ * {@link #caseInsensitive()} also matches every name and alias regardless of case. Both are only
+ * considered when reading, a constant is always written with its declared (or
+ * {@linkplain com.squareup.moshi.Json json}) name.
+ *
+ * <p>The factory also handles {@code Set} and {@code Map} types of the annotated enum (as elements
+ * and keys respectively), which are read into an {@link java.util.EnumSet EnumSet} and an
+ * {@link java.util.EnumMap EnumMap}.
  */
 @Documented
 @Retention(RetentionPolicy.RUNTIME)
@@ -47,23 +55,60 @@ import java.util.Set;
 public @interface FallbackEnum {
   String name();
 
+  /**
+   * When {@code true} names and {@linkplain Alias aliases} are matched ignoring case. Common
+   * spellings are still matched without allocating, any other one is read as a string and looked
+   * up in a table precomputed over the case folded names.
+   */
+  boolean caseInsensitive() default false;
+
+  /**
+   * When {@code true} unknown values are left out of {@code Set} and {@code Map} (keys) of the
+   * annotated enum, instead of being read as the fallback constant.
+   */
+  boolean dropUnknownInCollections() default false;
+
+  /**
+   * Numeric codes of the enum constants, in the order in which they are declared. If set, values
+   * are read and written as these json numbers instead of names, and unknown codes are read as the
+   * fallback constant.
+   */
+  int[] codes() default {};
+
+  /** Declares additional names that are read as the annotated enum constant. */
+  @Documented
+  @Retention(RetentionPolicy.RUNTIME)
+  @Target(ElementType.FIELD)
+  @interface Alias {
+    String[] value();
+  }
+
   /** Builds an adapter that can process enums annotated with {@link FallbackEnum}. */
-  JsonAdapter.Factory ADAPTER_FACTORY = new JsonAdapter.Factory() {
-    @Override public JsonAdapter<?> create(Type type, Set<? extends Annotation> annotations,
-        Moshi moshi) {
-      if (!annotations.isEmpty()) return null;
+  JsonAdapter.Factory ADAPTER_FACTORY = FallbackEnumJsonAdapter.factory(null);
 
-      Class<?> rawType = Types.getRawType(type);
-      if (rawType.isEnum()) {
-        FallbackEnum annotation = rawType.getAnnotation(FallbackEnum.class);
-        if (annotation == null) return null;
+  /**
+   * Notified every time a value can not be matched and the fallback constant is used instead.
+   * Invoked on the parsing thread, so implementations must be thread safe and cheap.
+   *
+   * @see UnknownEnumValueSketch
+   */
+  interface UnknownValueListener {
+    void onUnknownValue(Class<? extends Enum<?>> enumType, String value);
+  }
 
-        //noinspection unchecked
-        return new FallbackEnumJsonAdapter<>((Class<? extends Enum>) rawType, annotation.name())
-            .nullSafe();
-      }
+  /** Creates adapter factories for enums annotated with {@link FallbackEnum}. */
+  final class Factory {
+    /**
+     * Builds an adapter factory like {@link #ADAPTER_FACTORY}, that reports every unknown value
+     * to {@code listener}.
+     */
+    public static JsonAdapter.Factory create(UnknownValueListener listener) {
+      if (listener == null) throw new NullPointerException("listener == null");
+      return FallbackEnumJsonAdapter.factory(listener);
+    }
 
-      return null;
+    private Factory() {
+      throw new AssertionError("No instances.");
     }
-  };
+  }
 }
@@ -20,49 +20,375 @@ import com.squareup.moshi.Json;
 import com.squareup.moshi.JsonAdapter;
 import com.squareup.moshi.JsonReader;
 import com.squareup.moshi.JsonWriter;
+import com.squareup.moshi.Moshi;
+import com.squareup.moshi.Types;
 import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * {@linkplain JsonAdapter} that fallbacks to a default enum constant declared in the enum type
  * annotated with {@linkplain FallbackEnum}.
  */
 final class FallbackEnumJsonAdapter<T extends Enum<T>> extends JsonAdapter<T> {
+  /** Codes up to this many times the number of constants are mapped through a dense array. */
+  private static final int DENSE_CODES_FACTOR = 4;
+
   private final Class<T> enumType;
-  private final String[] nameStrings;
   private final T[] constants;
+  private final String[] nameStrings;
+  private final T[] optionConstants;
   private final JsonReader.Options options;
   private final T fallbackConstant;
+  private final boolean caseInsensitive;
+  private final FallbackEnum.UnknownValueListener listener;
+
+  // Open addressed table over all case folded names, used only in case insensitive mode. It is
+  // kept at most half full, so a lookup usually ends after a probe or two.
+  private final String[] slotNames;
+  private final T[] slotConstants;
+
+  // Numeric codes by ordinal, and their reverse mapping. Null unless codes are declared.
+  private final int[] codes;
+  /** Ordinals indexed by code, or -1. Null if the codes are too sparse. */
+  private final int[] denseOrdinals;
+  /** Open addressed table of the codes, if they are too sparse for {@link #denseOrdinals}. */
+  private final int[] slotCodes;
+  private final int[] slotOrdinals;
+
+  static JsonAdapter.Factory factory(final FallbackEnum.UnknownValueListener listener) {
+    return new JsonAdapter.Factory() {
+      @Override public JsonAdapter<?> create(Type type, Set<? extends Annotation> annotations,
+          Moshi moshi) {
+        if (!annotations.isEmpty()) return null;
+
+        Class<?> rawType = Types.getRawType(type);
+        if (rawType.isEnum()) {
+          FallbackEnum annotation = rawType.getAnnotation(FallbackEnum.class);
+          if (annotation == null) return null;
+
+          return forEnum(rawType, annotation, listener).nullSafe();
+        }
+
+        if (rawType == Set.class || rawType == EnumSet.class) {
+          Class<?> elementType =
+              Types.getRawType(Types.collectionElementType(type, Collection.class));
+          FallbackEnum annotation = elementType.getAnnotation(FallbackEnum.class);
+          if (annotation == null || !elementType.isEnum()) return null;
+
+          return new FallbackEnumSetJsonAdapter<>(forEnum(elementType, annotation, listener),
+              annotation.dropUnknownInCollections()).nullSafe();
+        }
 
-  FallbackEnumJsonAdapter(Class<T> enumType, String fallback) {
+        if ((rawType == Map.class || rawType == EnumMap.class)
+            && type instanceof ParameterizedType) {
+          Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+          Class<?> keyType = Types.getRawType(arguments[0]);
+          FallbackEnum annotation = keyType.getAnnotation(FallbackEnum.class);
+          if (annotation == null || !keyType.isEnum()) return null;
+
+          return new FallbackEnumMapJsonAdapter<>(forEnum(keyType, annotation, listener),
+              moshi.adapter(arguments[1]), annotation.dropUnknownInCollections()).nullSafe();
+        }
+
+        return null;
+      }
+    };
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static FallbackEnumJsonAdapter<?> forEnum(Class<?> enumType, FallbackEnum annotation,
+      FallbackEnum.UnknownValueListener listener) {
+    return new FallbackEnumJsonAdapter<>((Class<? extends Enum>) enumType, annotation.name(),
+        annotation.caseInsensitive(), annotation.codes(), listener);
+  }
+
+  FallbackEnumJsonAdapter(Class<T> enumType, String fallback, boolean caseInsensitive,
+      int[] codes, FallbackEnum.UnknownValueListener listener) {
     fallbackConstant = Enum.valueOf(enumType, fallback);
     this.enumType = enumType;
+    this.caseInsensitive = caseInsensitive;
+    this.listener = listener;
+
+    constants = enumType.getEnumConstants();
+    nameStrings = new String[constants.length];
+    Map<String, T> spellings = new LinkedHashMap<>();
+    Map<String, T> folded = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
     try {
-      constants = enumType.getEnumConstants();
-      nameStrings = new String[constants.length];
       for (int i = 0; i < constants.length; i++) {
         T constant = constants[i];
-        Json annotation = enumType.getField(constant.name()).getAnnotation(Json.class);
+        Field field = enumType.getField(constant.name());
+        Json annotation = field.getAnnotation(Json.class);
         String name = annotation != null ? annotation.name() : constant.name();
         nameStrings[i] = name;
+
+        putSpelling(spellings, folded, name, constant);
+        FallbackEnum.Alias alias = field.getAnnotation(FallbackEnum.Alias.class);
+        if (alias != null) {
+          for (String value : alias.value()) {
+            putSpelling(spellings, folded, value, constant);
+          }
+        }
       }
-      options = JsonReader.Options.of(nameStrings);
     } catch (NoSuchFieldException e) {
       throw new AssertionError(e);
     }
+
+    if (caseInsensitive) {
+      // The usual spellings of each name stay on the allocation free selectString() path.
+      for (Map.Entry<String, T> entry : new ArrayList<>(folded.entrySet())) {
+        String name = entry.getKey();
+        addVariant(spellings, name, name.toLowerCase(Locale.ROOT), entry.getValue());
+        addVariant(spellings, name, name.toUpperCase(Locale.ROOT), entry.getValue());
+        if (!name.isEmpty()) {
+          addVariant(spellings, name, name.substring(0, 1).toUpperCase(Locale.ROOT)
+              + name.substring(1).toLowerCase(Locale.ROOT), entry.getValue());
+        }
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    T[] optionConstants = (T[]) Array.newInstance(enumType, spellings.size());
+    this.optionConstants = optionConstants;
+    String[] optionNames = new String[spellings.size()];
+    int index = 0;
+    for (Map.Entry<String, T> entry : spellings.entrySet()) {
+      optionNames[index] = entry.getKey();
+      optionConstants[index++] = entry.getValue();
+    }
+    options = JsonReader.Options.of(optionNames);
+
+    if (caseInsensitive) {
+      int size = Integer.highestOneBit(Math.max(1, folded.size()) * 2 - 1) << 1;
+      slotNames = new String[size];
+      @SuppressWarnings("unchecked")
+      T[] slotConstants = (T[]) Array.newInstance(enumType, size);
+      this.slotConstants = slotConstants;
+      for (Map.Entry<String, T> entry : folded.entrySet()) {
+        int slot = foldedHash(entry.getKey()) & (size - 1);
+        while (slotNames[slot] != null) {
+          slot = (slot + 1) & (size - 1);
+        }
+        slotNames[slot] = entry.getKey();
+        slotConstants[slot] = entry.getValue();
+      }
+    } else {
+      slotNames = null;
+      slotConstants = null;
+    }
+
+    if (codes.length == 0) {
+      this.codes = null;
+      denseOrdinals = null;
+      slotCodes = null;
+      slotOrdinals = null;
+      return;
+    }
+    if (codes.length != constants.length) {
+      throw new IllegalArgumentException("@FallbackEnum codes of " + enumType.getName()
+          + " must declare one code per constant: expected " + constants.length + " but was "
+          + codes.length + ".");
+    }
+
+    this.codes = codes.clone();
+    int min = Integer.MAX_VALUE;
+    int max = Integer.MIN_VALUE;
+    for (int code : codes) {
+      min = Math.min(min, code);
+      max = Math.max(max, code);
+    }
+
+    if (min >= 0 && max < DENSE_CODES_FACTOR * codes.length) {
+      denseOrdinals = new int[max + 1];
+      Arrays.fill(denseOrdinals, -1);
+      for (int ordinal = 0; ordinal < codes.length; ordinal++) {
+        checkUniqueCode(denseOrdinals[codes[ordinal]], ordinal);
+        denseOrdinals[codes[ordinal]] = ordinal;
+      }
+      slotCodes = null;
+      slotOrdinals = null;
+    } else {
+      denseOrdinals = null;
+      int size = Integer.highestOneBit(codes.length * 2 - 1) << 1;
+      slotCodes = new int[size];
+      slotOrdinals = new int[size];
+      Arrays.fill(slotOrdinals, -1);
+      for (int ordinal = 0; ordinal < codes.length; ordinal++) {
+        int slot = codeHash(codes[ordinal]) & (size - 1);
+        while (slotOrdinals[slot] != -1) {
+          if (slotCodes[slot] == codes[ordinal]) checkUniqueCode(slotOrdinals[slot], ordinal);
+          slot = (slot + 1) & (size - 1);
+        }
+        slotCodes[slot] = codes[ordinal];
+        slotOrdinals[slot] = ordinal;
+      }
+    }
+  }
+
+  private void checkUniqueCode(int existing, int ordinal) {
+    if (existing != -1) {
+      throw new IllegalArgumentException("Code " + codes[ordinal] + " of " + enumType.getName()
+          + " is declared by both " + constants[existing] + " and " + constants[ordinal] + ".");
+    }
   }
 
   @Override public T fromJson(JsonReader reader) throws IOException {
-    int index = reader.selectString(options);
-    if (index != -1) return constants[index];
-    reader.nextString();
-    return fallbackConstant;
+    int ordinal = readOrdinal(reader, false);
+    return ordinal != -1 ? constants[ordinal] : fallbackConstant;
   }
 
   @Override public void toJson(JsonWriter writer, T value) throws IOException {
-    writer.value(nameStrings[value.ordinal()]);
+    int ordinal = value.ordinal();
+    if (codes != null) {
+      writer.value((long) codes[ordinal]);
+      return;
+    }
+    writer.value(nameStrings[ordinal]);
+  }
+
+  /**
+   * Reads a string, or a name if {@code name} is true, and returns the ordinal of the matching
+   * constant. Returns -1 if the value is unknown, after reporting it to the listener.
+   */
+  int readOrdinal(JsonReader reader, boolean name) throws IOException {
+    if (codes != null) return readCode(reader, name);
+
+    int index = name ? reader.selectName(options) : reader.selectString(options);
+    if (index != -1) return optionConstants[index].ordinal();
+    String value = name ? reader.nextName() : reader.nextString();
+    if (caseInsensitive) {
+      T constant = lookup(value);
+      if (constant != null) return constant.ordinal();
+    }
+    if (listener != null) listener.onUnknownValue(enumType, value);
+    return -1;
+  }
+
+  private int readCode(JsonReader reader, boolean name) throws IOException {
+    int code;
+    if (name) {
+      String value = reader.nextName();
+      try {
+        code = Integer.parseInt(value);
+      } catch (NumberFormatException e) {
+        if (listener != null) listener.onUnknownValue(enumType, value);
+        return -1;
+      }
+    } else {
+      // Read as a double, so that fractions and numbers out of the int range fall back too.
+      double value = reader.nextDouble();
+      code = (int) value;
+      if (code != value) {
+        if (listener != null) listener.onUnknownValue(enumType, String.valueOf(value));
+        return -1;
+      }
+    }
+
+    int ordinal;
+    if (denseOrdinals != null) {
+      ordinal = code >= 0 && code < denseOrdinals.length ? denseOrdinals[code] : -1;
+    } else {
+      ordinal = -1;
+      int mask = slotCodes.length - 1;
+      for (int slot = codeHash(code) & mask; slotOrdinals[slot] != -1; slot = (slot + 1) & mask) {
+        if (slotCodes[slot] == code) {
+          ordinal = slotOrdinals[slot];
+          break;
+        }
+      }
+    }
+    if (ordinal == -1 && listener != null) listener.onUnknownValue(enumType, String.valueOf(code));
+    return ordinal;
+  }
+
+  Class<T> enumType() {
+    return enumType;
+  }
+
+  T constant(int ordinal) {
+    return constants[ordinal];
+  }
+
+  T fallbackConstant() {
+    return fallbackConstant;
+  }
+
+  String name(T constant) {
+    return codes != null ? String.valueOf(codes[constant.ordinal()])
+        : nameStrings[constant.ordinal()];
   }
 
   @Override public String toString() {
-    return "JsonAdapter(" + enumType.getName() + ").fallbackEnum(" + fallbackConstant + ")";
+    return "JsonAdapter(" + enumType.getName() + ").fallbackEnum(" + fallbackConstant + ")"
+        + (caseInsensitive ? ".caseInsensitive()" : "") + (codes != null ? ".codes()" : "");
+  }
+
+  private T lookup(String name) {
+    int mask = slotNames.length - 1;
+    int slot = foldedHash(name) & mask;
+    while (slotNames[slot] != null) {
+      if (slotNames[slot].equalsIgnoreCase(name)) return slotConstants[slot];
+      slot = (slot + 1) & mask;
+    }
+    return null;
+  }
+
+  private void putSpelling(Map<String, T> spellings, Map<String, T> folded, String name,
+      T constant) {
+    T existing = spellings.put(name, constant);
+    if (existing != null && existing != constant) {
+      throw new IllegalArgumentException("Name '" + name + "' of " + enumType.getName()
+          + " is declared by both " + existing + " and " + constant + ".");
+    }
+    if (!caseInsensitive) return;
+
+    existing = folded.get(name);
+    if (existing == null) {
+      folded.put(name, constant);
+    } else if (existing != constant) {
+      throw new IllegalArgumentException("Name '" + name + "' of " + enumType.getName()
+          + " matches both " + existing + " and " + constant + " ignoring case.");
+    }
+  }
+
+  /** Adds {@code variant} unless it is spelled differently than {@code name} ignoring case. */
+  private static <T> void addVariant(Map<String, T> spellings, String name, String variant,
+      T constant) {
+    if (variant.equalsIgnoreCase(name) && !spellings.containsKey(variant)) {
+      spellings.put(variant, constant);
+    }
+  }
+
+  private static int codeHash(int code) {
+    int h = code * 0x9e3779b9;
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * Hashes {@code name} one case folded char at a time, so that names which are
+   * {@linkplain String#equalsIgnoreCase(String) equal ignoring case} share a hash.
+   */
+  private static int foldedHash(String name) {
+    int h = 0;
+    for (int i = 0, length = name.length(); i < length; i++) {
+      h = 31 * h + Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+    }
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    return h;
   }
 }
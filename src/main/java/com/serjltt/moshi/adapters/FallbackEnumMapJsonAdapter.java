@@ -0,0 +1,92 @@
+/*
+ * Copyright 2016 Serj Lotutovici
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.serjltt.moshi.adapters;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonDataException;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * {@linkplain JsonAdapter} that reads a json object, which names are enum values annotated with
+ * {@linkplain FallbackEnum}, into an {@link EnumMap}.
+ */
+final class FallbackEnumMapJsonAdapter<K extends Enum<K>, V> extends JsonAdapter<Map<K, V>> {
+  private final FallbackEnumJsonAdapter<K> keyAdapter;
+  private final JsonAdapter<V> valueAdapter;
+  private final boolean dropUnknown;
+
+  FallbackEnumMapJsonAdapter(FallbackEnumJsonAdapter<K> keyAdapter, JsonAdapter<V> valueAdapter,
+      boolean dropUnknown) {
+    this.keyAdapter = keyAdapter;
+    this.valueAdapter = valueAdapter;
+    this.dropUnknown = dropUnknown;
+  }
+
+  @Override public Map<K, V> fromJson(JsonReader reader) throws IOException {
+    EnumMap<K, V> result = new EnumMap<>(keyAdapter.enumType());
+    K fallback = keyAdapter.fallbackConstant();
+    // True while the fallback key holds the value of an unknown name.
+    boolean fallbackFromUnknown = false;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      int ordinal = keyAdapter.readOrdinal(reader, true);
+      if (ordinal == -1) {
+        // Several unknown names may fall back to the same key, the first one wins. The fallback
+        // name itself always wins over unknown names, wherever it appears.
+        if (dropUnknown || result.containsKey(fallback)) {
+          Util.skipValue(reader, valueAdapter);
+        } else {
+          result.put(fallback, valueAdapter.fromJson(reader));
+          fallbackFromUnknown = true;
+        }
+        continue;
+      }
+
+      K key = keyAdapter.constant(ordinal);
+      V value = valueAdapter.fromJson(reader);
+      if (key == fallback && fallbackFromUnknown) {
+        fallbackFromUnknown = false;
+      } else if (result.containsKey(key)) {
+        throw new JsonDataException("Map key '" + keyAdapter.name(key)
+            + "' has multiple values at path " + reader.getPath() + ": " + result.get(key)
+            + " and " + value);
+      }
+      result.put(key, value);
+    }
+    reader.endObject();
+    return result;
+  }
+
+  @Override public void toJson(JsonWriter writer, Map<K, V> value) throws IOException {
+    writer.beginObject();
+    for (Map.Entry<K, V> entry : value.entrySet()) {
+      K key = entry.getKey();
+      if (key == null) throw new JsonDataException("Map key is null at " + writer.getPath());
+      writer.name(keyAdapter.name(key));
+      valueAdapter.toJson(writer, entry.getValue());
+    }
+    writer.endObject();
+  }
+
+  @Override public String toString() {
+    return "JsonAdapter(" + keyAdapter + "=" + valueAdapter + ")"
+        + (dropUnknown ? ".dropUnknown()" : "");
+  }
+}
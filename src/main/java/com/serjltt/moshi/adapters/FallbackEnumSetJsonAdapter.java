@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016 Serj Lotutovici
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.serjltt.moshi.adapters;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * {@linkplain JsonAdapter} that reads a json array of enum values annotated with
+ * {@linkplain FallbackEnum} into an {@link EnumSet}. Null elements are skipped, since an
+ * {@link EnumSet} cannot hold them.
+ */
+final class FallbackEnumSetJsonAdapter<T extends Enum<T>> extends JsonAdapter<Set<T>> {
+  private final FallbackEnumJsonAdapter<T> elementAdapter;
+  private final boolean dropUnknown;
+
+  FallbackEnumSetJsonAdapter(FallbackEnumJsonAdapter<T> elementAdapter, boolean dropUnknown) {
+    this.elementAdapter = elementAdapter;
+    this.dropUnknown = dropUnknown;
+  }
+
+  @Override public Set<T> fromJson(JsonReader reader) throws IOException {
+    EnumSet<T> result = EnumSet.noneOf(elementAdapter.enumType());
+    reader.beginArray();
+    while (reader.hasNext()) {
+      if (reader.peek() == JsonReader.Token.NULL) {
+        reader.nextNull();
+        continue;
+      }
+      int ordinal = elementAdapter.readOrdinal(reader, false);
+      if (ordinal != -1) {
+        result.add(elementAdapter.constant(ordinal));
+      } else if (!dropUnknown) {
+        result.add(elementAdapter.fallbackConstant());
+      }
+    }
+    reader.endArray();
+    return result;
+  }
+
+  @Override public void toJson(JsonWriter writer, Set<T> value) throws IOException {
+    writer.beginArray();
+    for (T element : value) {
+      if (element == null) {
+        writer.nullValue();
+      } else {
+        elementAdapter.toJson(writer, element);
+      }
+    }
+    writer.endArray();
+  }
+
+  @Override public String toString() {
+    return "JsonAdapter(Set<" + elementAdapter + ">)" + (dropUnknown ? ".dropUnknown()" : "");
+  }
+}
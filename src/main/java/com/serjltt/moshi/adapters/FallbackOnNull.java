@@ -25,10 +25,8 @@ import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
-import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.Set;
-import java.util.Locale;
 
 import static com.serjltt.moshi.adapters.Util.nextAnnotations;
 
@@ -36,6 +34,11 @@ import static com.serjltt.moshi.adapters.Util.nextAnnotations;
  * Indicates that the annotated field may be {@code null} in the json source and thus requires a
  * fallback value.
  *
+ * <p>Supported are primitives, their boxed counterparts and {@code String}, which fallback to the
+ * respective value of this annotation. {@link java.util.List List}, {@link java.util.Collection
+ * Collection}, {@link java.util.Set Set} and {@link java.util.Map Map} fallback to the shared
+ * immutable empty instances of {@link java.util.Collections}.
+ *
  * <p>To leverage from {@linkplain FallbackOnNull} {@linkplain FallbackOnNull#ADAPTER_FACTORY}
  * must be added to your {@linkplain Moshi Moshi instance}:
  *
@@ -50,30 +53,35 @@ import static com.serjltt.moshi.adapters.Util.nextAnnotations;
 @Retention(RetentionPolicy.RUNTIME)
 @Target({ ElementType.FIELD, ElementType.METHOD, ElementType.ANNOTATION_TYPE })
 public @interface FallbackOnNull {
-  /** Fallback value for {@code boolean} primitives. Default: {@code false}. */
+  /** Fallback value for {@code boolean} and {@code Boolean}. Default: {@code false}. */
   boolean fallbackBoolean() default false;
 
-  /** Fallback value for {@code byte} primitives. Default: {@code Byte.MIN_VALUE}. */
+  /** Fallback value for {@code byte} and {@code Byte}. Default: {@code Byte.MIN_VALUE}. */
   byte fallbackByte() default Byte.MIN_VALUE;
 
-  /** Fallback value for {@code char} primitives. Default: {@code Character.MIN_VALUE}. */
+  /**
+   * Fallback value for {@code char} and {@code Character}. Default: {@code Character.MIN_VALUE}.
+   */
   char fallbackChar() default Character.MIN_VALUE;
 
-  /** Fallback value for {@code double} primitives. Default: {@code Double.MIN_VALUE}. */
+  /** Fallback value for {@code double} and {@code Double}. Default: {@code Double.MIN_VALUE}. */
   double fallbackDouble() default Double.MIN_VALUE;
 
-  /** Fallback value for {@code float} primitives. Default: {@code Float.MIN_VALUE}. */
+  /** Fallback value for {@code float} and {@code Float}. Default: {@code Float.MIN_VALUE}. */
   float fallbackFloat() default Float.MIN_VALUE;
 
-  /** Fallback value for {@code int} primitives. Default: {@code Integer.MIN_VALUE}. */
+  /** Fallback value for {@code int} and {@code Integer}. Default: {@code Integer.MIN_VALUE}. */
   int fallbackInt() default Integer.MIN_VALUE;
 
-  /** Fallback value for {@code long} primitives. Default: {@code Long.MIN_VALUE}. */
+  /** Fallback value for {@code long} and {@code Long}. Default: {@code Long.MIN_VALUE}. */
   long fallbackLong() default Long.MIN_VALUE;
 
-  /** Fallback value for {@code short} primitives. Default: {@code Short.MIN_VALUE}. */
+  /** Fallback value for {@code short} and {@code Short}. Default: {@code Short.MIN_VALUE}. */
   short fallbackShort() default Short.MIN_VALUE;
 
+  /** Fallback value for {@code String}. Default: {@code ""}. */
+  String fallbackString() default "";
+
   /** Builds an adapter that can process a types annotated with {@link FallbackOnNull}. */
   JsonAdapter.Factory ADAPTER_FACTORY = new JsonAdapter.Factory() {
     @Override public JsonAdapter<?> create(Type type, Set<? extends Annotation> annotations,
@@ -83,30 +91,10 @@ public @interface FallbackOnNull {
       if (nextAnnotations == null) return null;
 
       Class<?> rawType = Types.getRawType(type);
-      if (!FallbackOnNullJsonAdapter.PRIMITIVE_CLASSES.contains(rawType)) return null;
-
-      String fallbackType = fallbackType(rawType);
-      Object fallback = retrieveFallback(nextAnnotations.first, fallbackType);
-
-      return new FallbackOnNullJsonAdapter<>(moshi.adapter(type, nextAnnotations.second),
-          fallback, fallbackType);
-    }
-
-    /** Invokes the appropriate fallback method based on the {@code fallbackType}. */
-    private Object retrieveFallback(FallbackOnNull annotation, String fallbackType) {
-      try {
-        Method fallbackMethod = FallbackOnNull.class.getMethod(fallbackType);
-        return fallbackMethod.invoke(annotation);
-      } catch (Exception e) {
-        throw new AssertionError(e);
-      }
-    }
+      if (!FallbackOnNullJsonAdapter.FALLBACKS.containsKey(rawType)) return null;
 
-    /** Constructs the appropriate fallback method name based on the {@code rawType}. */
-    private String fallbackType(Class<?> rawType) {
-      String typeName = rawType.getSimpleName();
-      String methodSuffix = typeName.substring(0, 1).toUpperCase(Locale.US) + typeName.substring(1);
-      return "fallback" + methodSuffix;
+      JsonAdapter<Object> delegate = moshi.adapter(type, nextAnnotations.second);
+      return FallbackOnNullJsonAdapter.create(rawType, nextAnnotations.first, delegate);
     }
   };
 }
@@ -16,31 +16,100 @@
 package com.serjltt.moshi.adapters;
 
 import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonDataException;
 import com.squareup.moshi.JsonReader;
 import com.squareup.moshi.JsonWriter;
+import com.squareup.moshi.Moshi;
 import java.io.IOException;
-import java.util.LinkedHashSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
- * {@linkplain JsonAdapter} that fallbacks to a default value of a primitive field annotated with
+ * {@linkplain JsonAdapter} that fallbacks to a default value of a field annotated with
  * {@linkplain FallbackOnNull}.
  */
-final class FallbackOnNullJsonAdapter<T> extends JsonAdapter<T> {
-  /** Set of primitives classes that are supported by <strong>this</strong> adapter. */
-  static final Set<Class<?>> PRIMITIVE_CLASSES = new LinkedHashSet<>();
+class FallbackOnNullJsonAdapter<T> extends JsonAdapter<T> {
+  /** Moshi's built in adapters of the primitives. Those are singletons. */
+  private static final Moshi BUILT_IN = new Moshi.Builder().build();
+
+  /** The fallbacks of the types that are supported by <strong>this</strong> adapter. */
+  static final Map<Class<?>, Fallback> FALLBACKS = new LinkedHashMap<>();
 
   static {
-    PRIMITIVE_CLASSES.add(boolean.class);
-    PRIMITIVE_CLASSES.add(byte.class);
-    PRIMITIVE_CLASSES.add(char.class);
-    PRIMITIVE_CLASSES.add(double.class);
-    PRIMITIVE_CLASSES.add(float.class);
-    PRIMITIVE_CLASSES.add(int.class);
-    PRIMITIVE_CLASSES.add(long.class);
-    PRIMITIVE_CLASSES.add(short.class);
+    FALLBACKS.put(boolean.class, new Fallback(boolean.class, "fallbackBoolean") {
+      @Override Object of(FallbackOnNull annotation) {
+        return annotation.fallbackBoolean();
+      }
+    });
+    FALLBACKS.put(byte.class, new Fallback(byte.class, "fallbackByte") {
+      @Override Object of(FallbackOnNull annotation) {
+        return annotation.fallbackByte();
+      }
+    });
+    FALLBACKS.put(char.class, new Fallback(char.class, "fallbackChar") {
+      @Override Object of(FallbackOnNull annotation) {
+        return annotation.fallbackChar();
+      }
+    });
+    FALLBACKS.put(double.class, new Fallback(double.class, "fallbackDouble") {
+      @Override Object of(FallbackOnNull annotation) {
+        return annotation.fallbackDouble();
+      }
+    });
+    FALLBACKS.put(float.class, new Fallback(float.class, "fallbackFloat") {
+      @Override Object of(FallbackOnNull annotation) {
+        return annotation.fallbackFloat();
+      }
+    });
+    FALLBACKS.put(int.class, new Fallback(int.class, "fallbackInt") {
+      @Override Object of(FallbackOnNull annotation) {
+        return annotation.fallbackInt();
+      }
+    });
+    FALLBACKS.put(long.class, new Fallback(long.class, "fallbackLong") {
+      @Override Object of(FallbackOnNull annotation) {
+        return annotation.fallbackLong();
+      }
+    });
+    FALLBACKS.put(short.class, new Fallback(short.class, "fallbackShort") {
+      @Override Object of(FallbackOnNull annotation) {
+        return annotation.fallbackShort();
+      }
+    });
+    // The boxed counterparts share the fallbacks, but are never specialized.
+    FALLBACKS.put(Boolean.class, FALLBACKS.get(boolean.class));
+    FALLBACKS.put(Byte.class, FALLBACKS.get(byte.class));
+    FALLBACKS.put(Character.class, FALLBACKS.get(char.class));
+    FALLBACKS.put(Double.class, FALLBACKS.get(double.class));
+    FALLBACKS.put(Float.class, FALLBACKS.get(float.class));
+    FALLBACKS.put(Integer.class, FALLBACKS.get(int.class));
+    FALLBACKS.put(Long.class, FALLBACKS.get(long.class));
+    FALLBACKS.put(Short.class, FALLBACKS.get(short.class));
+    FALLBACKS.put(String.class, new Fallback(null, "fallbackString") {
+      @Override Object of(FallbackOnNull annotation) {
+        return annotation.fallbackString();
+      }
+    });
+    // Immutable singletons, so that a fallback never allocates.
+    FALLBACKS.put(List.class, new Constant("emptyList", Collections.emptyList()));
+    FALLBACKS.put(Collection.class, FALLBACKS.get(List.class));
+    FALLBACKS.put(Set.class, new Constant("emptySet", Collections.emptySet()));
+    FALLBACKS.put(Map.class, new Constant("emptyMap", Collections.emptyMap()));
   }
 
+  /**
+   * Adapters specialized for a primitive, keyed by the built in delegate and the fallback. Those
+   * don't depend on a {@link Moshi} instance and are shared by all of them.
+   */
+  private static final ConcurrentMap<Pair<JsonAdapter<?>, Object>, FallbackOnNullJsonAdapter<?>>
+      SPECIALIZED = new ConcurrentHashMap<>();
+
   final JsonAdapter<T> delegate;
   final T fallback;
   final String fallbackType;
@@ -66,4 +135,240 @@ final class FallbackOnNullJsonAdapter<T> extends JsonAdapter<T> {
   @Override public String toString() {
     return delegate + ".fallbackOnNull(" + fallbackType + '=' + fallback + ')';
   }
+
+  /**
+   * Returns an adapter of {@code rawType}, which is one of the {@link #FALLBACKS}, that falls back
+   * to the value of {@code annotation}.
+   *
+   * <p>If {@code delegate} is Moshi's built in adapter, the returned adapter reads and writes the
+   * primitive value directly. The value is still boxed at the {@link JsonAdapter} boundary, but
+   * the fallback is boxed only once and there are no further delegation hops. Identical usages
+   * share the same instance.
+   */
+  static FallbackOnNullJsonAdapter<?> create(Class<?> rawType, FallbackOnNull annotation,
+      JsonAdapter<Object> delegate) {
+    Fallback fallback = FALLBACKS.get(rawType);
+    Object value = fallback.of(annotation);
+    if (delegate != fallback.builtIn) {
+      return new FallbackOnNullJsonAdapter<>(delegate, value, fallback.name);
+    }
+
+    Pair<JsonAdapter<?>, Object> key = new Pair<JsonAdapter<?>, Object>(delegate, value);
+    FallbackOnNullJsonAdapter<?> adapter = SPECIALIZED.get(key);
+    if (adapter == null) {
+      adapter = specialized(rawType, delegate, value, fallback.name);
+      FallbackOnNullJsonAdapter<?> existing = SPECIALIZED.putIfAbsent(key, adapter);
+      if (existing != null) adapter = existing;
+    }
+    return adapter;
+  }
+
+  private static FallbackOnNullJsonAdapter<?> specialized(Class<?> rawType,
+      JsonAdapter<Object> adapter, Object fallback, String fallbackType) {
+    if (rawType == boolean.class) return new BooleanAdapter(adapter, fallback, fallbackType);
+    if (rawType == byte.class) return new ByteAdapter(adapter, fallback, fallbackType);
+    if (rawType == char.class) return new CharAdapter(adapter, fallback, fallbackType);
+    if (rawType == double.class) return new DoubleAdapter(adapter, fallback, fallbackType);
+    if (rawType == float.class) return new FloatAdapter(adapter, fallback, fallbackType);
+    if (rawType == int.class) return new IntAdapter(adapter, fallback, fallbackType);
+    if (rawType == long.class) return new LongAdapter(adapter, fallback, fallbackType);
+    if (rawType == short.class) return new ShortAdapter(adapter, fallback, fallbackType);
+    throw new AssertionError("Not a primitive: " + rawType);
+  }
+
+  /** Retrieves the fallback of a type from {@link FallbackOnNull}, without reflection. */
+  abstract static class Fallback {
+    /** Moshi's adapter of a primitive type, or null if the type is not specialized. */
+    final JsonAdapter<?> builtIn;
+    /** The name of the annotation method, or of the constant fallback. */
+    final String name;
+
+    Fallback(Class<?> primitiveType, String name) {
+      this.builtIn = primitiveType != null ? BUILT_IN.adapter(primitiveType) : null;
+      this.name = name;
+    }
+
+    abstract Object of(FallbackOnNull annotation);
+  }
+
+  /** A fallback that does not depend on the annotation. */
+  private static final class Constant extends Fallback {
+    private final Object value;
+
+    Constant(String name, Object value) {
+      super(null, name);
+      this.value = value;
+    }
+
+    @Override Object of(FallbackOnNull annotation) {
+      return value;
+    }
+  }
+
+  /** Mirrors the range check of Moshi's byte and short adapters. */
+  static int rangeCheckNextInt(JsonReader reader, String typeMessage, int min, int max)
+      throws IOException {
+    int value = reader.nextInt();
+    if (value < min || value > max) {
+      throw new JsonDataException(
+          String.format("Expected %s but was %s at path %s", typeMessage, value, reader.getPath()));
+    }
+    return value;
+  }
+
+  private static final class BooleanAdapter extends FallbackOnNullJsonAdapter<Object> {
+    BooleanAdapter(JsonAdapter<Object> delegate, Object fallback, String fallbackType) {
+      super(delegate, fallback, fallbackType);
+    }
+
+    @Override public Object fromJson(JsonReader reader) throws IOException {
+      if (reader.peek() == JsonReader.Token.NULL) {
+        reader.nextNull(); // We need to consume the value.
+        return fallback;
+      }
+      return reader.nextBoolean();
+    }
+
+    @Override public void toJson(JsonWriter writer, Object value) throws IOException {
+      writer.value((Boolean) value);
+    }
+  }
+
+  private static final class ByteAdapter extends FallbackOnNullJsonAdapter<Object> {
+    ByteAdapter(JsonAdapter<Object> delegate, Object fallback, String fallbackType) {
+      super(delegate, fallback, fallbackType);
+    }
+
+    @Override public Object fromJson(JsonReader reader) throws IOException {
+      if (reader.peek() == JsonReader.Token.NULL) {
+        reader.nextNull(); // We need to consume the value.
+        return fallback;
+      }
+      return (byte) rangeCheckNextInt(reader, "a byte", Byte.MIN_VALUE, 0xff);
+    }
+
+    @Override public void toJson(JsonWriter writer, Object value) throws IOException {
+      writer.value(((Byte) value).intValue() & 0xff);
+    }
+  }
+
+  private static final class CharAdapter extends FallbackOnNullJsonAdapter<Object> {
+    CharAdapter(JsonAdapter<Object> delegate, Object fallback, String fallbackType) {
+      super(delegate, fallback, fallbackType);
+    }
+
+    @Override public Object fromJson(JsonReader reader) throws IOException {
+      if (reader.peek() == JsonReader.Token.NULL) {
+        reader.nextNull(); // We need to consume the value.
+        return fallback;
+      }
+      String value = reader.nextString();
+      if (value.length() > 1) {
+        throw new JsonDataException(String.format("Expected %s but was %s at path %s", "a char",
+            '"' + value + '"', reader.getPath()));
+      }
+      return value.charAt(0);
+    }
+
+    @Override public void toJson(JsonWriter writer, Object value) throws IOException {
+      writer.value(value.toString());
+    }
+  }
+
+  private static final class DoubleAdapter extends FallbackOnNullJsonAdapter<Object> {
+    DoubleAdapter(JsonAdapter<Object> delegate, Object fallback, String fallbackType) {
+      super(delegate, fallback, fallbackType);
+    }
+
+    @Override public Object fromJson(JsonReader reader) throws IOException {
+      if (reader.peek() == JsonReader.Token.NULL) {
+        reader.nextNull(); // We need to consume the value.
+        return fallback;
+      }
+      return reader.nextDouble();
+    }
+
+    @Override public void toJson(JsonWriter writer, Object value) throws IOException {
+      writer.value(((Double) value).doubleValue());
+    }
+  }
+
+  private static final class FloatAdapter extends FallbackOnNullJsonAdapter<Object> {
+    FloatAdapter(JsonAdapter<Object> delegate, Object fallback, String fallbackType) {
+      super(delegate, fallback, fallbackType);
+    }
+
+    @Override public Object fromJson(JsonReader reader) throws IOException {
+      if (reader.peek() == JsonReader.Token.NULL) {
+        reader.nextNull(); // We need to consume the value.
+        return fallback;
+      }
+      float value = (float) reader.nextDouble();
+      // Double check for infinity after float conversion; many doubles > Float.MAX
+      if (!reader.isLenient() && Float.isInfinite(value)) {
+        throw new JsonDataException(
+            "JSON forbids NaN and infinities: " + value + " at path " + reader.getPath());
+      }
+      return value;
+    }
+
+    @Override public void toJson(JsonWriter writer, Object value) throws IOException {
+      if (value == null) throw new NullPointerException();
+      writer.value((Float) value);
+    }
+  }
+
+  private static final class IntAdapter extends FallbackOnNullJsonAdapter<Object> {
+    IntAdapter(JsonAdapter<Object> delegate, Object fallback, String fallbackType) {
+      super(delegate, fallback, fallbackType);
+    }
+
+    @Override public Object fromJson(JsonReader reader) throws IOException {
+      if (reader.peek() == JsonReader.Token.NULL) {
+        reader.nextNull(); // We need to consume the value.
+        return fallback;
+      }
+      return reader.nextInt();
+    }
+
+    @Override public void toJson(JsonWriter writer, Object value) throws IOException {
+      writer.value(((Integer) value).intValue());
+    }
+  }
+
+  private static final class LongAdapter extends FallbackOnNullJsonAdapter<Object> {
+    LongAdapter(JsonAdapter<Object> delegate, Object fallback, String fallbackType) {
+      super(delegate, fallback, fallbackType);
+    }
+
+    @Override public Object fromJson(JsonReader reader) throws IOException {
+      if (reader.peek() == JsonReader.Token.NULL) {
+        reader.nextNull(); // We need to consume the value.
+        return fallback;
+      }
+      return reader.nextLong();
+    }
+
+    @Override public void toJson(JsonWriter writer, Object value) throws IOException {
+      writer.value(((Long) value).longValue());
+    }
+  }
+
+  private static final class ShortAdapter extends FallbackOnNullJsonAdapter<Object> {
+    ShortAdapter(JsonAdapter<Object> delegate, Object fallback, String fallbackType) {
+      super(delegate, fallback, fallbackType);
+    }
+
+    @Override public Object fromJson(JsonReader reader) throws IOException {
+      if (reader.peek() == JsonReader.Token.NULL) {
+        reader.nextNull(); // We need to consume the value.
+        return fallback;
+      }
+      return (short) rangeCheckNextInt(reader, "a short", Short.MIN_VALUE, Short.MAX_VALUE);
+    }
+
+    @Override public void toJson(JsonWriter writer, Object value) throws IOException {
+      writer.value(((Short) value).intValue());
+    }
+  }
 }
@@ -10,13 +10,17 @@ import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
 
 /**
  * Indicates that the annotated field may not contain any null values.
- * This annotation is applicable to all Collections.
+ * This annotation is applicable to all Collections, arrays of objects and Maps. The entries of a
+ * Map are dropped, if their value is null.
  *
  * <p>To leverage from {@link FilterNulls} {@link FilterNulls#ADAPTER_FACTORY} must be
  * added to your {@linkplain Moshi Moshi instance}:
@@ -43,7 +47,30 @@ public @interface FilterNulls {
       Class<?> rawType = Types.getRawType(type);
 
       if (Collection.class.isAssignableFrom(rawType)) {
-        return new FilterNullsJsonAdapter<>(moshi.adapter(type, nextAnnotations));
+        Type elementType = Types.collectionElementType(type, Collection.class);
+        return new FilterNullsJsonAdapter<>(moshi.adapter(type, nextAnnotations),
+            moshi.adapter(elementType), rawType);
+      }
+
+      if (rawType == Map.class) {
+        Type keyType = Object.class;
+        Type valueType = Object.class;
+        if (type instanceof ParameterizedType) {
+          Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+          keyType = arguments[0];
+          valueType = arguments[1];
+        }
+        return new FilterNullsMapJsonAdapter<>(moshi.<Map<Object, Object>>adapter(type,
+            nextAnnotations), moshi.adapter(keyType), moshi.adapter(valueType),
+            keyType == String.class);
+      }
+
+      if (rawType.isArray() && !rawType.getComponentType().isPrimitive()) {
+        Type componentType = type instanceof GenericArrayType
+            ? ((GenericArrayType) type).getGenericComponentType()
+            : rawType.getComponentType();
+        return new FilterNullsArrayJsonAdapter(moshi.<Object[]>adapter(type, nextAnnotations),
+            moshi.adapter(componentType), rawType.getComponentType());
       }
 
       return null;
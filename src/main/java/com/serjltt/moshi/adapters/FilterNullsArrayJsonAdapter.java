@@ -0,0 +1,60 @@
+package com.serjltt.moshi.adapters;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link JsonAdapter} that filters null values out of an array of objects.
+ */
+final class FilterNullsArrayJsonAdapter extends JsonAdapter<Object[]> {
+  private final JsonAdapter<Object[]> delegate;
+  private final JsonAdapter<Object> elementAdapter;
+  private final Class<?> componentType;
+
+  FilterNullsArrayJsonAdapter(JsonAdapter<Object[]> delegate, JsonAdapter<Object> elementAdapter,
+      Class<?> componentType) {
+    this.delegate = delegate;
+    this.elementAdapter = elementAdapter;
+    this.componentType = componentType;
+  }
+
+  @Override public Object[] fromJson(JsonReader reader) throws IOException {
+    if (reader.peek() == JsonReader.Token.NULL) return reader.nextNull();
+
+    List<Object> elements = new ArrayList<>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      if (reader.peek() == JsonReader.Token.NULL) {
+        reader.nextNull();
+        continue;
+      }
+      Object element = elementAdapter.fromJson(reader);
+      if (element != null) elements.add(element);
+    }
+    reader.endArray();
+    // The array is sized exactly, for the non null elements only.
+    return elements.toArray((Object[]) Array.newInstance(componentType, elements.size()));
+  }
+
+  @Override public void toJson(JsonWriter writer, Object[] value) throws IOException {
+    if (value == null) {
+      writer.nullValue();
+      return;
+    }
+
+    writer.beginArray();
+    for (Object element : value) {
+      if (element != null) elementAdapter.toJson(writer, element);
+    }
+    writer.endArray();
+  }
+
+  @Override public String toString() {
+    return delegate + ".filterNulls()";
+  }
+}
@@ -4,25 +4,73 @@ import com.squareup.moshi.JsonAdapter;
 import com.squareup.moshi.JsonReader;
 import com.squareup.moshi.JsonWriter;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * {@link JsonAdapter} that filters null values out.
  */
 final class FilterNullsJsonAdapter<T> extends JsonAdapter<T> {
   private final JsonAdapter<T> delegate;
+  private final JsonAdapter<Object> elementAdapter;
+  private final Class<?> rawType;
 
-  FilterNullsJsonAdapter(JsonAdapter<T> delegate) {
+  /**
+   * Creates an adapter for a collection of {@code rawType}. Lists and sets are read element by
+   * element with {@code elementAdapter}, other collections are read by {@code delegate}. All
+   * collections are written element by element.
+   */
+  FilterNullsJsonAdapter(JsonAdapter<T> delegate, JsonAdapter<Object> elementAdapter,
+      Class<?> rawType) {
     this.delegate = delegate;
+    this.elementAdapter = elementAdapter;
+    this.rawType = rawType;
   }
 
   @Override public T fromJson(JsonReader reader) throws IOException {
-    return removeNulls(delegate.fromJson(reader));
+    Collection<Object> result;
+    if (rawType == List.class || rawType == Collection.class) {
+      result = new ArrayList<>();
+    } else if (rawType == Set.class) {
+      result = new LinkedHashSet<>();
+    } else {
+      return removeNulls(delegate.fromJson(reader));
+    }
+
+    if (reader.peek() == JsonReader.Token.NULL) return reader.nextNull();
+
+    // Null elements are dropped while streaming, so the result never has to be compacted.
+    reader.beginArray();
+    while (reader.hasNext()) {
+      if (reader.peek() == JsonReader.Token.NULL) {
+        reader.nextNull();
+        continue;
+      }
+      Object element = elementAdapter.fromJson(reader);
+      if (element != null) result.add(element);
+    }
+    reader.endArray();
+    @SuppressWarnings("unchecked") // The factory ensures that T is a List, Collection or Set.
+    T collection = (T) result;
+    return collection;
   }
 
   @Override public void toJson(JsonWriter writer, T value) throws IOException {
-    delegate.toJson(writer, removeNulls(value));
+    if (value == null) {
+      writer.nullValue();
+      return;
+    }
+
+    // The collection is neither modified, nor copied. So it might as well be shared.
+    writer.beginArray();
+    for (Object element : (Collection<?>) value) {
+      if (element != null) elementAdapter.toJson(writer, element);
+    }
+    writer.endArray();
   }
 
   @Override public String toString() {
@@ -31,13 +79,9 @@ final class FilterNullsJsonAdapter<T> extends JsonAdapter<T> {
 
   private T removeNulls(final T value) {
     if (value != null) {
-      final Iterator<?> it = ((Collection<?>) value).iterator();
-
-      while (it.hasNext()) {
-        if (it.next() == null) {
-          it.remove();
-        }
-      }
+      // Unlike removing one element at a time, this does not shift the remaining elements again
+      // and again.
+      ((Collection<?>) value).removeAll(Collections.singleton(null));
     }
 
     return value;
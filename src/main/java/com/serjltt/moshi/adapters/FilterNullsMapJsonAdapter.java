@@ -0,0 +1,76 @@
+package com.serjltt.moshi.adapters;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonDataException;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link JsonAdapter} that filters out the entries of a map, which have a null value.
+ */
+final class FilterNullsMapJsonAdapter<K, V> extends JsonAdapter<Map<K, V>> {
+  private final JsonAdapter<Map<K, V>> delegate;
+  private final JsonAdapter<K> keyAdapter;
+  private final JsonAdapter<V> valueAdapter;
+  /** If true names are used as keys as they are, otherwise they are decoded by keyAdapter. */
+  private final boolean stringKeys;
+
+  FilterNullsMapJsonAdapter(JsonAdapter<Map<K, V>> delegate, JsonAdapter<K> keyAdapter,
+      JsonAdapter<V> valueAdapter, boolean stringKeys) {
+    this.delegate = delegate;
+    this.keyAdapter = keyAdapter;
+    this.valueAdapter = valueAdapter;
+    this.stringKeys = stringKeys;
+  }
+
+  @Override public Map<K, V> fromJson(JsonReader reader) throws IOException {
+    if (reader.peek() == JsonReader.Token.NULL) return reader.nextNull();
+
+    Map<K, V> result = new LinkedHashMap<>();
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String name = reader.nextName();
+      if (reader.peek() == JsonReader.Token.NULL) {
+        reader.nextNull();
+        continue;
+      }
+      V value = valueAdapter.fromJson(reader);
+      if (value == null) continue;
+
+      @SuppressWarnings("unchecked") // The factory ensures that K is a String.
+      K key = stringKeys ? (K) name : keyAdapter.fromJsonValue(name);
+      V replaced = result.put(key, value);
+      if (replaced != null) {
+        throw new JsonDataException("Map key '" + key + "' has multiple values at path "
+            + reader.getPath() + ": " + replaced + " and " + value);
+      }
+    }
+    reader.endObject();
+    return result;
+  }
+
+  @Override public void toJson(JsonWriter writer, Map<K, V> value) throws IOException {
+    if (value == null) {
+      writer.nullValue();
+      return;
+    }
+
+    writer.beginObject();
+    for (Map.Entry<K, V> entry : value.entrySet()) {
+      if (entry.getValue() == null) continue;
+
+      K key = entry.getKey();
+      if (key == null) throw new JsonDataException("Map key is null at " + writer.getPath());
+      writer.name(stringKeys ? (String) key : String.valueOf(keyAdapter.toJsonValue(key)));
+      valueAdapter.toJson(writer, entry.getValue());
+    }
+    writer.endObject();
+  }
+
+  @Override public String toString() {
+    return delegate + ".filterNulls()";
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2016 Serj Lotutovici
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.serjltt.moshi.adapters;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonDataException;
+import com.squareup.moshi.JsonQualifier;
+import com.squareup.moshi.Moshi;
+import com.squareup.moshi.Types;
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static com.serjltt.moshi.adapters.Util.nextAnnotations;
+
+/**
+ * Indicates that the annotated type/field should be read from the value(s) selected by a json
+ * path expression. This is a more expressive alternative to {@link Wrapped}.
+ *
+ * <p>For example if a json object is:
+ * <pre>
+ *   {
+ *     "data": {
+ *       "items": [
+ *         { "name": "Pen", "price": 2.5 },
+ *         { "name": "Ink", "price": 4.0 }
+ *       ]
+ *     }
+ *   }
+ * </pre>
+ * And the consumer only cares about the price of the first item, if using retrofit, a service
+ * method would look like:
+ *
+ * <pre><code>
+ *   {@literal @}GET("path/")
+ *   {@literal @}JsonPath("$.data.items[0].price") Call&lt;Double&gt; getPrice();
+ * </code></pre>
+ *
+ * The resulting response returned by {@code response.body()} will be a {@code Double} with the
+ * value {@code 2.5}. Expressions that select multiple values, like {@code $.data.items[*].price},
+ * require the annotated type to be a {@link List} (or {@link Collection}).
+ *
+ * <p>The expression is compiled once, when the adapter is created, and the json is streamed
+ * without decoding anything but the selected values.
+ *
+ * <p>To leverage from {@link JsonPath} {@link JsonPath#ADAPTER_FACTORY} must be
+ * added to your {@linkplain Moshi Moshi instance}:
+ *
+ * <pre><code>
+ *   Moshi moshi = new Moshi.Builder()
+ *      .add(JsonPath.ADAPTER_FACTORY)
+ *      .build();
+ * </code></pre>
+ */
+@Documented
+@JsonQualifier
+@Retention(RetentionPolicy.RUNTIME)
+@Target({
+  ElementType.FIELD,
+  ElementType.METHOD,
+  ElementType.PARAMETER,
+  ElementType.ANNOTATION_TYPE
+})
+public @interface JsonPath {
+  /**
+   * The json path expression, which must start with the root {@code $}. The supported steps are:
+   * <ul>
+   *   <li>{@code .name} or {@code ['name']} - the value of an object key.</li>
+   *   <li>{@code [n]} - the n-th element of an array, {@code [-n]} counts from the end.</li>
+   *   <li>{@code [start:end:step]} - a slice of an array, every part is optional.</li>
+   *   <li>{@code .*} or {@code [*]} - every element of an array or value of an object.</li>
+   * </ul>
+   * Recursive descent and filter expressions are not supported.
+   */
+  String value();
+
+  /**
+   * Indicates if the adapter should fail when a null was found on the path. Default
+   * {@code true}.
+   */
+  boolean failOnNotFound() default true;
+
+  /**
+   * Indicates if the adapter should fail with a {@link JsonDataException}, whose stack trace is
+   * dropped and whose message does not contain the actual path. See
+   * {@link Wrapped#stacklessFailures()}. Default {@code false}.
+   */
+  boolean stacklessFailures() default false;
+
+  /** Builds an adapter that can process a types annotated with {@link JsonPath}. */
+  JsonAdapter.Factory ADAPTER_FACTORY = new JsonAdapter.Factory() {
+    @Override public JsonAdapter<?> create(Type type, Set<? extends Annotation> annotations,
+        Moshi moshi) {
+      Pair<JsonPath, Set<Annotation>> nextAnnotations =
+          nextAnnotations(annotations, JsonPath.class);
+      if (nextAnnotations == null) return null;
+
+      JsonPath jsonPath = nextAnnotations.first;
+      JsonPathPlan path = JsonPathPlan.compileExpression(jsonPath.value());
+      if (jsonPath.stacklessFailures()) path = path.stackless();
+
+      Type valueType = type;
+      if (path.isMultiValued()) {
+        Class<?> rawType = Types.getRawType(type);
+        if (rawType != List.class && rawType != Collection.class) {
+          throw new IllegalArgumentException("Json path " + path + " of " + type
+              + " selects multiple values and must be declared as a List or Collection.");
+        }
+        valueType = Types.collectionElementType(type, Collection.class);
+      }
+
+      JsonAdapter<Object> adapter = moshi.adapter(valueType, nextAnnotations.second);
+      return new WrappedJsonAdapter<>(adapter, path, jsonPath.failOnNotFound(), false,
+          "jsonPath");
+    }
+  };
+}
@@ -0,0 +1,521 @@
+/*
+ * Copyright 2016 Serj Lotutovici
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.serjltt.moshi.adapters;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonDataException;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import okio.Buffer;
+
+/**
+ * An immutable, compiled json path, which is streamed through a {@link JsonReader} without
+ * decoding anything but the values at the end of the path.
+ *
+ * <p>A path is a sequence of steps. An object key step selects the value of a name, an index
+ * step {@code [n]} selects the n-th element of an array, and {@code [-n]} the n-th element from
+ * the end of an array. A wildcard step {@code [*]} selects every value of an array or object, and
+ * a slice step {@code [start:end:step]} selects every {@code step}-th element of an array, from
+ * {@code start} (inclusive) to {@code end} (exclusive). Wildcards and slices make a path
+ * <i>multi valued</i>.
+ */
+final class JsonPathPlan {
+  private static final int NAME = 0;
+  private static final int INDEX = 1;
+  private static final int FROM_END = 2;
+  private static final int WILDCARD = 3;
+  private static final int SLICE = 4;
+
+  /** Returned by {@link #readOrNotFound} instead of throwing, when the path is not found. */
+  static final Object NOT_FOUND = new Object();
+
+  /** How the path was declared, e.g. {@code [data, items]} or {@code $.data.items}. */
+  private final String description;
+  /** The beginning of every failure message, formatted once. */
+  private final String expectation;
+  private final int[] kinds;
+  private final String[] names;
+  private final JsonReader.Options[] options;
+  /** The index of an index step, or the start of a slice. */
+  private final int[] starts;
+  private final int[] ends;
+  private final int[] strides;
+  /** For each step, the index of the first multi valued step at or after it. */
+  private final int[] nextMultiValued;
+  private final boolean hasSlices;
+  /** The precomputed failure messages of a {@linkplain #stackless() stackless} plan, or null. */
+  private final String foundNullMessage;
+  private final String notFoundMessage;
+
+  private JsonPathPlan(String description, String expectation, List<Step> steps) {
+    this.description = description;
+    this.expectation = expectation;
+    int length = steps.size();
+    this.kinds = new int[length];
+    this.names = new String[length];
+    this.options = new JsonReader.Options[length];
+    this.starts = new int[length];
+    this.ends = new int[length];
+    this.strides = new int[length];
+    this.nextMultiValued = new int[length + 1];
+    nextMultiValued[length] = length;
+    boolean hasSlices = false;
+    for (int i = length - 1; i >= 0; i--) {
+      Step step = steps.get(i);
+      kinds[i] = step.kind;
+      names[i] = step.name;
+      starts[i] = step.start;
+      ends[i] = step.end;
+      strides[i] = step.stride;
+      if (step.kind == NAME) options[i] = JsonReader.Options.of(step.name);
+      if (step.kind == SLICE) hasSlices = true;
+      boolean multiValued = step.kind == WILDCARD || step.kind == SLICE;
+      nextMultiValued[i] = multiValued ? i : nextMultiValued[i + 1];
+    }
+    this.hasSlices = hasSlices;
+    this.foundNullMessage = null;
+    this.notFoundMessage = null;
+  }
+
+  private JsonPathPlan(JsonPathPlan plan) {
+    this.description = plan.description;
+    this.expectation = plan.expectation;
+    this.kinds = plan.kinds;
+    this.names = plan.names;
+    this.options = plan.options;
+    this.starts = plan.starts;
+    this.ends = plan.ends;
+    this.strides = plan.strides;
+    this.nextMultiValued = plan.nextMultiValued;
+    this.hasSlices = plan.hasSlices;
+    this.foundNullMessage = expectation + ". Found null";
+    this.notFoundMessage = expectation + ". Not found";
+  }
+
+  /**
+   * Compiles the segments of a {@link Wrapped#path()}. Segments in the form of {@code [n]},
+   * {@code [-n]} and {@code [*]} are array steps, any other segment is an object key.
+   */
+  static JsonPathPlan compile(String[] path) {
+    List<Step> steps = new ArrayList<>(path.length);
+    for (String segment : path) {
+      if (isObjectKey(segment)) {
+        steps.add(Step.name(objectKey(segment)));
+      } else if ("[*]".equals(segment)) {
+        steps.add(Step.wildcard());
+      } else {
+        try {
+          steps.add(Step.index(segment.substring(1, segment.length() - 1)));
+        } catch (NumberFormatException e) {
+          throw new IllegalArgumentException(
+              "Invalid segment " + segment + " in " + Arrays.asList(path), e);
+        }
+      }
+    }
+    String description = Arrays.asList(path).toString();
+    return new JsonPathPlan(description, "Wrapped Json expected at path: " + description, steps);
+  }
+
+  /** Returns true if {@code segment} of a {@link Wrapped#path()} is an object key. */
+  static boolean isObjectKey(String segment) {
+    return !isElementSegment(segment);
+  }
+
+  /**
+   * Returns the object key of a {@link Wrapped#path()} {@code segment}. A leading backslash is
+   * dropped from an escaped key, which would otherwise address array elements, like
+   * {@code "\\[0]"}.
+   */
+  static String objectKey(String segment) {
+    return segment.startsWith("\\") && isElementSegment(segment.substring(1))
+        ? segment.substring(1)
+        : segment;
+  }
+
+  private static boolean isElementSegment(String segment) {
+    return "[*]".equals(segment) || segment.matches("\\[-?\\d+]");
+  }
+
+  /**
+   * Compiles a {@link JsonPath#value() json path expression}, like {@code $.data.items[0].price}.
+   * Supports child ({@code .name}, {@code ['name']}), wildcard ({@code .*}, {@code [*]}), index
+   * ({@code [n]}, {@code [-n]}) and slice ({@code [start:end:step]}) steps.
+   */
+  static JsonPathPlan compileExpression(String expression) {
+    if (!expression.startsWith("$")) throw invalid(expression, 0, "must start with '$'");
+
+    List<Step> steps = new ArrayList<>();
+    int pos = 1;
+    while (pos < expression.length()) {
+      char c = expression.charAt(pos);
+      if (c == '.') {
+        int start = ++pos;
+        while (pos < expression.length()
+            && expression.charAt(pos) != '.' && expression.charAt(pos) != '[') {
+          pos++;
+        }
+        if (start == pos) throw invalid(expression, start, "expected a name");
+        String name = expression.substring(start, pos);
+        steps.add("*".equals(name) ? Step.wildcard() : Step.name(name));
+      } else if (c == '[') {
+        int end = expression.indexOf(']', pos);
+        char quote = pos + 1 < expression.length() ? expression.charAt(pos + 1) : 0;
+        if (quote == '\'' || quote == '"') {
+          int close = expression.indexOf(quote, pos + 2);
+          if (close == -1 || close + 1 >= expression.length()
+              || expression.charAt(close + 1) != ']') {
+            throw invalid(expression, pos, "unterminated name");
+          }
+          steps.add(Step.name(expression.substring(pos + 2, close)));
+          pos = close + 2;
+          continue;
+        }
+        if (end == -1) throw invalid(expression, pos, "expected ']'");
+        String content = expression.substring(pos + 1, end).trim();
+        try {
+          if ("*".equals(content)) {
+            steps.add(Step.wildcard());
+          } else if (content.indexOf(':') != -1) {
+            steps.add(Step.slice(content));
+          } else {
+            steps.add(Step.index(content));
+          }
+        } catch (NumberFormatException e) {
+          throw invalid(expression, pos + 1, "expected a number");
+        }
+        pos = end + 1;
+      } else {
+        throw invalid(expression, pos, "unexpected '" + c + "'");
+      }
+    }
+    return new JsonPathPlan(expression, "Json expected at path: " + expression, steps);
+  }
+
+  /**
+   * Returns a copy of this plan, which fails with exceptions that have neither a stack trace nor
+   * the actual path in their message. Their message is computed once, and they are smaller to
+   * retain and log. They are not cheaper to create, the stack trace is still captured by the
+   * constructor of {@link com.squareup.moshi.JsonDataException}.
+   */
+  JsonPathPlan stackless() {
+    return new JsonPathPlan(this);
+  }
+
+  /** Returns true if this plan {@linkplain #stackless() fails without a stack trace}. */
+  boolean isStackless() {
+    return notFoundMessage != null;
+  }
+
+  /** Returns true if this path selects a list of values. */
+  boolean isMultiValued() {
+    return nextMultiValued[0] != kinds.length;
+  }
+
+  /** Returns the number of multi valued steps of this path. */
+  int multiValuedSteps() {
+    int count = 0;
+    for (int i = nextMultiValued[0]; i < kinds.length; i = nextMultiValued[i + 1]) {
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Reads the value(s) at the end of this path with {@code adapter}. A multi valued path adds
+   * every value to {@code values}, otherwise the single value is returned.
+   *
+   * <p>The json objects and arrays that are opened on the way are consumed completely, unless
+   * {@code stopAfterMatch} is set, in which case this returns as soon as the last value was read.
+   */
+  Object read(JsonReader reader, JsonAdapter<?> adapter, boolean failOnNotFound,
+      boolean stopAfterMatch, List<Object> values) throws IOException {
+    return read(reader, 0, false, adapter, failOnNotFound, stopAfterMatch, false, values);
+  }
+
+  /**
+   * Like {@link #read}, but returns {@link #NOT_FOUND} where it would fail because the path was
+   * not found, so that no exception is created. The reader is then left in the middle of the
+   * value, and so it is after a match. This is only meant for a copy of the json, which is
+   * discarded afterwards.
+   */
+  Object readOrNotFound(JsonReader reader, JsonAdapter<?> adapter, boolean failOnNotFound,
+      List<Object> values) throws IOException {
+    return read(reader, 0, false, adapter, failOnNotFound, true, true, values);
+  }
+
+  private Object read(JsonReader reader, int from, boolean nested, JsonAdapter<?> adapter,
+      boolean failOnNotFound, boolean stopAfterMatch, boolean returnNotFound,
+      List<Object> values) throws IOException {
+    Object result = null;
+    // The position within each opened slice, only slices need to count the skipped elements.
+    int[] positions = hasSlices ? new int[kinds.length] : null;
+    // The steps in [from, from + depth) have opened a json object or array.
+    int depth = 0;
+    while (true) {
+      // Descend one step at a time, until the end of the path is reached.
+      while (true) {
+        if ((depth > 0 || nested) && reader.peek() == JsonReader.Token.NULL) {
+          // Consumer expects a value, not a null.
+          if (failOnNotFound) {
+            if (returnNotFound) return NOT_FOUND;
+            throw foundNull(reader);
+          }
+          result = emit(values, reader.nextNull());
+          break;
+        }
+
+        int step = from + depth;
+        if (step == kinds.length) {
+          result = emit(values, adapter.fromJson(reader));
+          break;
+        }
+
+        int kind = kinds[step];
+        if (kind == FROM_END) {
+          reader.beginArray();
+          Buffer element = Util.bufferFromEnd(reader, -starts[step]);
+          reader.endArray();
+          if (element == null) {
+            if (returnNotFound) return NOT_FOUND;
+            throw notFound(reader);
+          }
+          // The rest of the path is read from the retained copy of the element. The copy is
+          // discarded afterwards, so there is no need to consume it completely.
+          result = read(Util.newReader(element, reader), step + 1, true, adapter,
+              failOnNotFound, true, returnNotFound, values);
+          if (result == NOT_FOUND) return NOT_FOUND;
+          break;
+        }
+
+        if (kind == NAME) {
+          reader.beginObject();
+        } else if (kind == WILDCARD && reader.peek() == JsonReader.Token.BEGIN_OBJECT) {
+          reader.beginObject();
+        } else {
+          reader.beginArray();
+        }
+        if (!select(reader, step, positions)) {
+          // End the container, so that the message reflects the one missing the step.
+          end(reader);
+          if (kind == WILDCARD || kind == SLICE) break; // Simply has no values.
+          if (returnNotFound) return NOT_FOUND;
+          throw notFound(reader);
+        }
+        depth++;
+      }
+
+      // Unwind the opened steps, unless a wildcard or slice has more values to descend into.
+      while (depth > 0) {
+        int step = from + depth - 1;
+        if (kinds[step] == WILDCARD && reader.hasNext()) {
+          if (reader.peek() == JsonReader.Token.NAME) reader.skipValue();
+          break;
+        }
+        if (kinds[step] == SLICE && next(reader, step, positions)) break;
+        if (stopAfterMatch && nextMultiValued[from] > step) return result;
+        // If the json has additional values, that were not read, we ignore them.
+        while (reader.hasNext()) {
+          reader.skipValue();
+        }
+        // End the container, so that other adapters (if any) can proceed.
+        end(reader);
+        depth--;
+      }
+      if (depth == 0) return result;
+    }
+  }
+
+  /**
+   * Writes {@code value} with {@code adapter}, wrapped in the json objects and arrays that
+   * resemble this path. The value of a multi valued path must be an {@link Iterable}.
+   *
+   * <p>Its elements are written into the array of the first multi valued step. Any further multi
+   * valued step wraps a single element, so that reading the json yields the same values.
+   */
+  void write(JsonWriter writer, JsonAdapter<Object> adapter, Object value) throws IOException {
+    write(writer, adapter, value, 0, false);
+  }
+
+  private void write(JsonWriter writer, JsonAdapter<Object> adapter, Object value, int from,
+      boolean element) throws IOException {
+    for (int step = from; step < kinds.length; step++) {
+      if (kinds[step] == NAME) {
+        writer.beginObject();
+        writer.name(names[step]);
+      } else {
+        writer.beginArray();
+      }
+
+      if ((kinds[step] == WILDCARD || kinds[step] == SLICE) && !element) {
+        for (Object next : (Iterable<?>) value) {
+          if (next != null || writer.getSerializeNulls()) {
+            write(writer, adapter, next, step + 1, true);
+          } else {
+            writer.nullValue();
+          }
+        }
+        end(writer, from, step + 1);
+        return;
+      }
+    }
+    adapter.toJson(writer, value);
+    end(writer, from, kinds.length);
+  }
+
+  @Override public String toString() {
+    return description;
+  }
+
+  /**
+   * Advances the reader to the first value selected by {@code step} within the json object or
+   * array that was just opened. Returns {@code false} if there is no such value, in which case
+   * the container is fully consumed, except for its end.
+   */
+  private boolean select(JsonReader reader, int step, int[] positions) throws IOException {
+    switch (kinds[step]) {
+      case NAME:
+        while (reader.hasNext()) {
+          if (reader.selectName(options[step]) == 0) return true;
+          // Skip both the unmatched name and its value.
+          reader.skipValue();
+          reader.skipValue();
+        }
+        return false;
+      case WILDCARD:
+        if (!reader.hasNext()) return false;
+        if (reader.peek() == JsonReader.Token.NAME) reader.skipValue();
+        return true;
+      case SLICE:
+        positions[step] = starts[step];
+        if (starts[step] >= ends[step]) {
+          skip(reader, Integer.MAX_VALUE);
+          return false;
+        }
+        return skip(reader, starts[step]);
+      default:
+        return skip(reader, starts[step]);
+    }
+  }
+
+  /**
+   * Advances a slice past the element that was just read, to its next element. Returns
+   * {@code false} if the slice is exhausted, in which case the remaining elements are unread.
+   */
+  private boolean next(JsonReader reader, int step, int[] positions) throws IOException {
+    int position = positions[step] + strides[step];
+    if (position >= ends[step]) return false;
+    positions[step] = position;
+    return skip(reader, strides[step] - 1);
+  }
+
+  /** Skips {@code count} elements of an array. Returns true if there is a following element. */
+  private static boolean skip(JsonReader reader, int count) throws IOException {
+    for (int i = 0; i < count && reader.hasNext(); i++) {
+      reader.skipValue();
+    }
+    return reader.hasNext();
+  }
+
+  private static void end(JsonReader reader) throws IOException {
+    if (reader.peek() == JsonReader.Token.END_OBJECT) {
+      reader.endObject();
+    } else {
+      reader.endArray();
+    }
+  }
+
+  private void end(JsonWriter writer, int from, int to) throws IOException {
+    for (int step = to - 1; step >= from; step--) {
+      if (kinds[step] == NAME) {
+        writer.endObject();
+      } else {
+        writer.endArray();
+      }
+    }
+  }
+
+  private JsonDataException foundNull(JsonReader reader) {
+    if (foundNullMessage != null) return Util.stacklessException(foundNullMessage);
+    return new JsonDataException(expectation + ". Found null at " + reader.getPath());
+  }
+
+  private JsonDataException notFound(JsonReader reader) {
+    if (notFoundMessage != null) return Util.stacklessException(notFoundMessage);
+    return new JsonDataException(expectation + ". Actual: " + reader.getPath());
+  }
+
+  private static Object emit(List<Object> values, Object value) {
+    if (values != null) values.add(value);
+    return value;
+  }
+
+  private static IllegalArgumentException invalid(String expression, int index, String reason) {
+    return new IllegalArgumentException(
+        "Invalid json path " + expression + " at index " + index + ": " + reason);
+  }
+
+  /** A single step of a path, only used while compiling. */
+  private static final class Step {
+    final int kind;
+    final String name;
+    final int start;
+    final int end;
+    final int stride;
+
+    private Step(int kind, String name, int start, int end, int stride) {
+      this.kind = kind;
+      this.name = name;
+      this.start = start;
+      this.end = end;
+      this.stride = stride;
+    }
+
+    static Step name(String name) {
+      return new Step(NAME, name, 0, 0, 0);
+    }
+
+    static Step wildcard() {
+      return new Step(WILDCARD, null, 0, 0, 0);
+    }
+
+    /** Parses {@code n} or {@code -n}, where {@code -0} is rejected. */
+    static Step index(String index) {
+      int value = Integer.parseInt(index);
+      if (value == 0 && index.startsWith("-")) throw new NumberFormatException(index);
+      if (value >= 0) return new Step(INDEX, null, value, 0, 0);
+      return new Step(FROM_END, null, value, 0, 0);
+    }
+
+    /** Parses {@code start:end:stride}, where every part is optional. */
+    static Step slice(String slice) {
+      String[] parts = slice.split(":", -1);
+      if (parts.length > 3) throw new NumberFormatException(slice);
+      int start = parts[0].trim().isEmpty() ? 0 : Integer.parseInt(parts[0].trim());
+      int end = parts[1].trim().isEmpty() ? Integer.MAX_VALUE : Integer.parseInt(parts[1].trim());
+      int stride = parts.length < 3 || parts[2].trim().isEmpty()
+          ? 1 : Integer.parseInt(parts[2].trim());
+      if (start < 0 || end < 0 || stride <= 0) {
+        throw new IllegalArgumentException("Slice [" + slice + "] must have a positive step "
+            + "and must not count from the end of the array.");
+      }
+      return new Step(SLICE, null, start, end, stride);
+    }
+  }
+}
@@ -9,6 +9,7 @@ import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.Collections;
 import java.util.List;
+import okio.Buffer;
 
 /**
  * {@linkplain JsonAdapter} that extracts the last element
@@ -16,16 +17,22 @@ import java.util.List;
  */
 final class LastElementJsonAdapter<T> extends JsonAdapter<T> {
   private final JsonAdapter<List<T>> delegate;
+  private final JsonAdapter<T> elementAdapter;
 
   LastElementJsonAdapter(Type type, Moshi moshi) {
     Type listType = Types.newParameterizedType(List.class, type);
     delegate = moshi.adapter(listType);
+    elementAdapter = moshi.adapter(type);
   }
 
   @Override public T fromJson(JsonReader reader) throws IOException {
-    List<T> fromJson = delegate.fromJson(reader);
-    if (fromJson != null && !fromJson.isEmpty()) return fromJson.get(fromJson.size() - 1);
-    return null;
+    if (reader.peek() == JsonReader.Token.NULL) return reader.nextNull();
+
+    // Only the json of the most recent element is retained, and decoded once the array ends.
+    reader.beginArray();
+    Buffer last = Util.bufferFromEnd(reader, 1);
+    reader.endArray();
+    return last != null ? elementAdapter.fromJson(Util.newReader(last, reader)) : null;
   }
 
   @Override public void toJson(JsonWriter writer, T value) throws IOException {
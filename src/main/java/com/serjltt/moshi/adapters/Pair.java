@@ -9,4 +9,16 @@ final class Pair<F, S> {
     this.first = first;
     this.second = second;
   }
+
+  @Override public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof Pair)) return false;
+    Pair<?, ?> other = (Pair<?, ?>) o;
+    return (first != null ? first.equals(other.first) : other.first == null)
+        && (second != null ? second.equals(other.second) : other.second == null);
+  }
+
+  @Override public int hashCode() {
+    return 31 * (first != null ? first.hashCode() : 0) + (second != null ? second.hashCode() : 0);
+  }
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2016 Serj Lotutovici
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.serjltt.moshi.adapters;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonQualifier;
+import com.squareup.moshi.Moshi;
+import com.squareup.moshi.Types;
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static com.serjltt.moshi.adapters.Util.nextAnnotations;
+
+/**
+ * Indicates that the annotated {@link List} (or {@link Collection}) should only contain a window
+ * of a json array: every {@link #step()}-th element, starting at {@link #from()} (inclusive) and
+ * ending at {@link #to()} (exclusive).
+ *
+ * <p>For example if the consumer only cares about the first 20 samples of a long json array, if
+ * using retrofit, a service method would look like:
+ *
+ * <pre><code>
+ *   {@literal @}GET("path/")
+ *   {@literal @}Slice(to = 20) Call&lt;List&lt;Sample&gt;&gt; getSamples();
+ * </code></pre>
+ *
+ * Only the elements within the window are decoded, all other elements are skipped. Once the
+ * window is complete the rest of the array is skipped as well.
+ *
+ * <p>To leverage from {@link Slice} {@link Slice#ADAPTER_FACTORY} must be
+ * added to your {@linkplain Moshi Moshi instance}:
+ *
+ * <pre><code>
+ *   Moshi moshi = new Moshi.Builder()
+ *      .add(Slice.ADAPTER_FACTORY)
+ *      .build();
+ * </code></pre>
+ */
+@Documented
+@JsonQualifier
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.FIELD, ElementType.METHOD, ElementType.ANNOTATION_TYPE })
+public @interface Slice {
+  /** The index of the first element of the window. Default {@code 0}. */
+  int from() default 0;
+
+  /** The index after the last element of the window. By default the window is not bounded. */
+  int to() default Integer.MAX_VALUE;
+
+  /** The distance between two elements of the window. Default {@code 1}. */
+  int step() default 1;
+
+  /** Builds an adapter that can process a types annotated with {@link Slice}. */
+  JsonAdapter.Factory ADAPTER_FACTORY = new JsonAdapter.Factory() {
+    @Override public JsonAdapter<?> create(Type type, Set<? extends Annotation> annotations,
+        Moshi moshi) {
+      Pair<Slice, Set<Annotation>> nextAnnotations = nextAnnotations(annotations, Slice.class);
+      if (nextAnnotations == null || !nextAnnotations.second.isEmpty()) return null;
+
+      Slice slice = nextAnnotations.first;
+      Class<?> rawType = Types.getRawType(type);
+      if (rawType != List.class && rawType != Collection.class) {
+        throw new IllegalArgumentException(
+            "@Slice " + type + " must be declared as a List or Collection.");
+      }
+      if (slice.from() < 0 || slice.to() < slice.from() || slice.step() <= 0) {
+        throw new IllegalArgumentException("@Slice(from = " + slice.from() + ", to = "
+            + slice.to() + ", step = " + slice.step() + ") is not a valid window.");
+      }
+
+      Type elementType = Types.collectionElementType(type, Collection.class);
+      return new SliceJsonAdapter<>(elementType, moshi, slice.from(), slice.to(), slice.step());
+    }
+  };
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2016 Serj Lotutovici
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.serjltt.moshi.adapters;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
+import com.squareup.moshi.Moshi;
+import com.squareup.moshi.Types;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@linkplain JsonAdapter} that extracts a window of the elements of an array of (a field) type
+ * annotated with {@linkplain Slice}.
+ */
+final class SliceJsonAdapter<T> extends JsonAdapter<List<T>> {
+  /** Bounds the initial capacity, in case a window exceeds the actual array by far. */
+  private static final int MAX_INITIAL_CAPACITY = 1024;
+
+  private final JsonAdapter<List<T>> delegate;
+  private final JsonAdapter<T> elementAdapter;
+  private final int from;
+  private final int to;
+  private final int step;
+  private final int initialCapacity;
+
+  SliceJsonAdapter(Type type, Moshi moshi, int from, int to, int step) {
+    Type listType = Types.newParameterizedType(List.class, type);
+    delegate = moshi.adapter(listType);
+    elementAdapter = moshi.adapter(type);
+    this.from = from;
+    this.to = to;
+    this.step = step;
+    // The number of elements of a bounded window, rounded up.
+    long size = ((long) to - from + step - 1) / step;
+    this.initialCapacity = to == Integer.MAX_VALUE
+        ? 10 : (int) Math.min(size, MAX_INITIAL_CAPACITY);
+  }
+
+  @Override public List<T> fromJson(JsonReader reader) throws IOException {
+    if (reader.peek() == JsonReader.Token.NULL) return reader.nextNull();
+
+    List<T> elements = new ArrayList<>(initialCapacity);
+    reader.beginArray();
+    int index = 0;
+    // Skip the elements in front of the window.
+    for (; index < from && reader.hasNext(); index++) {
+      Util.skipValue(reader, elementAdapter);
+    }
+    while (index < to && reader.hasNext()) {
+      elements.add(elementAdapter.fromJson(reader));
+      index++;
+      // Skip the elements in between.
+      for (int i = 1; i < step && index < to && reader.hasNext(); i++, index++) {
+        Util.skipValue(reader, elementAdapter);
+      }
+    }
+    // Skip the elements after the window.
+    while (reader.hasNext()) {
+      Util.skipValue(reader, elementAdapter);
+    }
+    reader.endArray();
+    return elements;
+  }
+
+  @Override public void toJson(JsonWriter writer, List<T> value) throws IOException {
+    delegate.toJson(writer, value);
+  }
+
+  @Override public String toString() {
+    return delegate + ".slice(" + from + ", " + to + ", " + step + ")";
+  }
+}
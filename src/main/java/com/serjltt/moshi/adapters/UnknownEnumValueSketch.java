@@ -0,0 +1,177 @@
+/*
+ * Copyright 2016 Serj Lotutovici
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.serjltt.moshi.adapters;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * {@linkplain FallbackEnum.UnknownValueListener Listener} that keeps track of the most frequent
+ * unknown values of each enum type, using a bounded space-saving sketch:
+ *
+ * <pre><code>
+ *   UnknownEnumValueSketch sketch = new UnknownEnumValueSketch(16);
+ *   Moshi moshi = new Moshi.Builder()
+ *      .add(FallbackEnum.Factory.create(sketch))
+ *      .build();
+ *   ...
+ *   List&lt;UnknownEnumValueSketch.Entry&gt; top = sketch.topValues(MyEnum.class);
+ * </code></pre>
+ *
+ * <p>At most {@code capacity} values are tracked per enum type. Once all slots are taken a new
+ * value replaces the least frequent one and inherits its count, which is then reported as the
+ * {@linkplain Entry#maxError() maximum error} of the new value. Recording never blocks, so counts
+ * are approximate when the same enum type is recorded from several threads at once.
+ */
+public final class UnknownEnumValueSketch implements FallbackEnum.UnknownValueListener {
+  private final int capacity;
+  private final ConcurrentMap<Class<?>, AtomicReferenceArray<Counter>> sketches =
+      new ConcurrentHashMap<>();
+
+  public UnknownEnumValueSketch(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be positive: " + capacity);
+    }
+    this.capacity = capacity;
+  }
+
+  @Override public void onUnknownValue(Class<? extends Enum<?>> enumType, String value) {
+    AtomicReferenceArray<Counter> slots = sketches.get(enumType);
+    if (slots == null) {
+      AtomicReferenceArray<Counter> newSlots = new AtomicReferenceArray<>(capacity);
+      slots = sketches.putIfAbsent(enumType, newSlots);
+      if (slots == null) slots = newSlots;
+    }
+
+    while (true) {
+      int minIndex = -1;
+      Counter min = null;
+      for (int i = 0; i < capacity; i++) {
+        Counter counter = slots.get(i);
+        if (counter == null) {
+          if (slots.compareAndSet(i, null, new Counter(value, 1, 0))) return;
+          counter = slots.get(i);
+        }
+        if (counter.value.equals(value)) {
+          counter.count.incrementAndGet();
+          return;
+        }
+        if (min == null || counter.count.get() < min.count.get()) {
+          min = counter;
+          minIndex = i;
+        }
+      }
+
+      long count = min.count.get();
+      if (slots.compareAndSet(minIndex, min, new Counter(value, count + 1, count))) return;
+    }
+  }
+
+  /** Returns the enum types for which at least one unknown value was recorded. */
+  public Set<Class<?>> enumTypes() {
+    return Collections.unmodifiableSet(sketches.keySet());
+  }
+
+  /**
+   * Returns the tracked unknown values of {@code enumType}, most frequent first. The list is a
+   * snapshot and holds at most {@code capacity} entries.
+   */
+  public List<Entry> topValues(Class<? extends Enum<?>> enumType) {
+    AtomicReferenceArray<Counter> slots = sketches.get(enumType);
+    if (slots == null) return Collections.emptyList();
+
+    // Concurrent inserts can place the same value in two slots, merge them back.
+    Map<String, Entry> entries = new LinkedHashMap<>();
+    for (int i = 0; i < capacity; i++) {
+      Counter counter = slots.get(i);
+      if (counter == null) continue;
+      Entry existing = entries.get(counter.value);
+      long count = counter.count.get();
+      entries.put(counter.value, existing == null
+          ? new Entry(counter.value, count, counter.maxError)
+          : new Entry(counter.value, existing.count + count, existing.maxError + counter.maxError));
+    }
+
+    List<Entry> result = new ArrayList<>(entries.values());
+    Collections.sort(result, new Comparator<Entry>() {
+      @Override public int compare(Entry a, Entry b) {
+        return a.count < b.count ? 1 : a.count == b.count ? 0 : -1;
+      }
+    });
+    return result;
+  }
+
+  /** Discards everything recorded so far. */
+  public void clear() {
+    sketches.clear();
+  }
+
+  @Override public String toString() {
+    return "UnknownEnumValueSketch(" + capacity + ")";
+  }
+
+  /** An unknown value and how often it was seen. */
+  public static final class Entry {
+    private final String value;
+    private final long count;
+    private final long maxError;
+
+    Entry(String value, long count, long maxError) {
+      this.value = value;
+      this.count = count;
+      this.maxError = maxError;
+    }
+
+    public String value() {
+      return value;
+    }
+
+    /** The number of times the value was seen, possibly overestimated by {@link #maxError()}. */
+    public long count() {
+      return count;
+    }
+
+    /** By how much {@link #count()} may be overestimated. */
+    public long maxError() {
+      return maxError;
+    }
+
+    @Override public String toString() {
+      return value + "=" + count + (maxError != 0 ? " (max error " + maxError + ")" : "");
+    }
+  }
+
+  private static final class Counter {
+    final String value;
+    final AtomicLong count;
+    final long maxError;
+
+    Counter(String value, long count, long maxError) {
+      this.value = value;
+      this.count = new AtomicLong(count);
+      this.maxError = maxError;
+    }
+  }
+}
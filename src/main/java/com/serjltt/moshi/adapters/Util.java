@@ -16,13 +16,23 @@
  */
 package com.serjltt.moshi.adapters;
 
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonDataException;
 import com.squareup.moshi.JsonQualifier;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
+import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.Set;
+import okio.Buffer;
 
 final class Util {
+  /** The type of readers that stream from a source, as opposed to reading a json value tree. */
+  private static final Class<?> UTF8_READER_TYPE = JsonReader.of(new Buffer()).getClass();
+  private static final StackTraceElement[] NO_STACK_TRACE = new StackTraceElement[0];
+
   /**
    * Checks if {@code annotations} contains {@code jsonQualifier}.
    * Returns a pair containing the subset of {@code annotations} without {@code jsonQualifier}
@@ -65,6 +75,202 @@ final class Util {
     return null;
   }
 
+  /**
+   * Copies the next json value from {@code reader} to {@code sink}, so that it can later be read
+   * again via {@link #newReader}. The value is re-encoded token by token: every name and scalar is
+   * still decoded into a String (or Number, or boolean) and written back. This only avoids
+   * building the intermediate Map/List tree of {@link JsonReader#readJsonValue()}, Moshi's public
+   * API has no way to copy the bytes of a value as they are.
+   */
+  static void copyValue(JsonReader reader, Buffer sink) throws IOException {
+    copyValue(reader, sink, Long.MAX_VALUE);
+  }
+
+  /**
+   * Like {@link #copyValue(JsonReader, Buffer)}, but stops copying once {@code sink} holds more
+   * than {@code maxBytes}. The remainder of the value is then skipped and {@code false} is
+   * returned, in which case the contents of {@code sink} are incomplete.
+   *
+   * <p>The size is checked before and after each token. Once the budget is spent no further name
+   * or scalar is decoded, they are skipped instead. A single token that starts within the budget is
+   * still decoded completely, as Moshi can't tell its size up front.
+   */
+  static boolean copyValue(JsonReader reader, Buffer sink, long maxBytes) throws IOException {
+    JsonWriter writer = JsonWriter.of(sink);
+    writer.setLenient(reader.isLenient());
+    writer.setSerializeNulls(true); // Names of null values must be retained.
+    int depth = 0;
+    do {
+      JsonReader.Token token = reader.peek();
+      if (sink.size() >= maxBytes && (token == JsonReader.Token.NAME
+          || token == JsonReader.Token.STRING || token == JsonReader.Token.NUMBER)) {
+        // Any further token overflows, so there is no point in decoding it.
+        skipRemainder(reader, depth);
+        return false;
+      }
+
+      switch (token) {
+        case BEGIN_ARRAY:
+          reader.beginArray();
+          writer.beginArray();
+          depth++;
+          break;
+        case END_ARRAY:
+          reader.endArray();
+          writer.endArray();
+          depth--;
+          break;
+        case BEGIN_OBJECT:
+          reader.beginObject();
+          writer.beginObject();
+          depth++;
+          break;
+        case END_OBJECT:
+          reader.endObject();
+          writer.endObject();
+          depth--;
+          break;
+        case NAME:
+          writer.name(reader.nextName());
+          break;
+        case STRING:
+          writer.value(reader.nextString());
+          break;
+        case NUMBER:
+          if (reader.getClass() == UTF8_READER_TYPE) {
+            // Keep the literal as is, so that no precision is lost.
+            writer.value(new NumberLiteral(reader.nextString()));
+          } else {
+            writer.value((Number) reader.readJsonValue());
+          }
+          break;
+        case BOOLEAN:
+          writer.value(reader.nextBoolean());
+          break;
+        case NULL:
+          reader.nextNull();
+          writer.nullValue();
+          break;
+        default:
+          throw new IllegalStateException("Expected a value but was " + reader.peek()
+              + " at path " + reader.getPath());
+      }
+
+      if (sink.size() > maxBytes) {
+        skipRemainder(reader, depth);
+        return false;
+      }
+    } while (depth != 0);
+    return true;
+  }
+
+  /**
+   * Skips the rest of the {@code depth} json arrays and objects that the reader is in. A reader
+   * that {@linkplain JsonReader#failOnUnknown() fails on unknown} values refuses to skip them, so
+   * their values are read and discarded instead.
+   */
+  private static void skipRemainder(JsonReader reader, int depth) throws IOException {
+    while (depth > 0) {
+      if (reader.hasNext() && !reader.failOnUnknown()) {
+        reader.skipValue();
+      } else if (reader.hasNext() && reader.peek() == JsonReader.Token.NAME) {
+        reader.nextName();
+      } else if (reader.hasNext()) {
+        reader.readJsonValue();
+      } else if (reader.peek() == JsonReader.Token.END_ARRAY) {
+        reader.endArray();
+        depth--;
+      } else {
+        reader.endObject();
+        depth--;
+      }
+    }
+  }
+
+  /**
+   * Skips the next value of {@code reader}. A reader that {@linkplain JsonReader#failOnUnknown()
+   * fails on unknown} values refuses to skip them, so the value is read with {@code adapter} and
+   * discarded instead.
+   */
+  static void skipValue(JsonReader reader, JsonAdapter<?> adapter) throws IOException {
+    if (reader.failOnUnknown()) {
+      adapter.fromJson(reader);
+    } else {
+      reader.skipValue();
+    }
+  }
+
+  /**
+   * Consumes the remaining elements of the current json array, while retaining a copy of the
+   * last {@code count} of them. Returns the copy of the element that was {@code count} positions
+   * from the end of the array, or {@code null} if the array had fewer elements.
+   */
+  static Buffer bufferFromEnd(JsonReader reader, int count) throws IOException {
+    Buffer[] ring = new Buffer[count];
+    int size = 0;
+    while (reader.hasNext()) {
+      int slot = size++ % count;
+      if (ring[slot] == null) {
+        ring[slot] = new Buffer();
+      } else {
+        ring[slot].clear();
+      }
+      copyValue(reader, ring[slot]);
+    }
+    return size < count ? null : ring[size % count];
+  }
+
+  /**
+   * Returns a new exception without a stack trace, which is smaller to retain and log.
+   * {@link JsonDataException} is final, so the JVM still captures the stack when the exception is
+   * created, this only drops it afterwards. Every failure gets its own instance, as a shared one
+   * could be altered by its catchers, e.g. through {@code addSuppressed()}.
+   */
+  static JsonDataException stacklessException(String message) {
+    JsonDataException exception = new JsonDataException(message);
+    exception.setStackTrace(NO_STACK_TRACE);
+    return exception;
+  }
+
+  /** Returns a reader of {@code source} that is configured like {@code reader}. */
+  static JsonReader newReader(Buffer source, JsonReader reader) {
+    JsonReader result = JsonReader.of(source);
+    result.setLenient(reader.isLenient());
+    result.setFailOnUnknown(reader.failOnUnknown());
+    return result;
+  }
+
+  /** A number which is written as the json literal it was read from. */
+  private static final class NumberLiteral extends Number {
+    private static final long serialVersionUID = 0L;
+
+    private final String literal;
+
+    NumberLiteral(String literal) {
+      this.literal = literal;
+    }
+
+    @Override public int intValue() {
+      return (int) doubleValue();
+    }
+
+    @Override public long longValue() {
+      return (long) doubleValue();
+    }
+
+    @Override public float floatValue() {
+      return (float) doubleValue();
+    }
+
+    @Override public double doubleValue() {
+      return Double.parseDouble(literal);
+    }
+
+    @Override public String toString() {
+      return literal;
+    }
+  }
+
   private Util() {
     throw new AssertionError("No instances.");
   }
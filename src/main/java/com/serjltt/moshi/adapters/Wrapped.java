@@ -16,8 +16,10 @@
 package com.serjltt.moshi.adapters;
 
 import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonDataException;
 import com.squareup.moshi.JsonQualifier;
 import com.squareup.moshi.Moshi;
+import com.squareup.moshi.Types;
 import java.lang.annotation.Annotation;
 import java.lang.annotation.Documented;
 import java.lang.annotation.ElementType;
@@ -26,6 +28,8 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.lang.reflect.Type;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 import static com.serjltt.moshi.adapters.Util.nextAnnotations;
@@ -75,7 +79,16 @@ import static com.serjltt.moshi.adapters.Util.nextAnnotations;
   ElementType.ANNOTATION_TYPE
 })
 public @interface Wrapped {
-  /** The path to the wrapped json path. */
+  /**
+   * The path to the wrapped json path. Besides object keys, a segment may address elements of a
+   * json array: {@code "[0]"} is the first element, {@code "[-1]"} the last element and
+   * {@code "[*]"} every element (or every value of a json object). The latter requires the
+   * annotated type to be a {@link List} (or {@link Collection}) of the wrapped values, and may
+   * appear at most once in a path. A key that looks like one of these is escaped with a leading
+   * backslash, i.e. {@code "\\[0]"} is the key {@code "[0]"}.
+   *
+   * <p>Array elements in front of an indexed element are skipped without being decoded.
+   */
   String[] path();
 
   /**
@@ -84,6 +97,23 @@ public @interface Wrapped {
    */
   boolean failOnNotFound() default true;
 
+  /**
+   * Indicates if the adapter should return as soon as the wrapped value was read, leaving the
+   * rest of the json source unread. This only applies when the wrapped value is the top-level
+   * json document, e.g. a retrofit response body. Otherwise the remaining keys are skipped as
+   * usual, so that other adapters can proceed. Default {@code false}.
+   */
+  boolean stopAfterMatch() default false;
+
+  /**
+   * Indicates if the adapter should fail with a {@link JsonDataException}, whose stack trace is
+   * dropped and whose message is computed once, without the actual path. Such failures are smaller
+   * to retain and log, but not cheaper to create. A {@link DefaultOnDataMismatch} adapter falls
+   * back on a missing path without creating an exception at all, regardless of this attribute.
+   * Default {@code false}.
+   */
+  boolean stacklessFailures() default false;
+
   /** Builds an adapter that can process a types annotated with {@link Wrapped}. */
   JsonAdapter.Factory ADAPTER_FACTORY = new JsonAdapter.Factory() {
     @Override public JsonAdapter<?> create(Type type, Set<? extends Annotation> annotations,
@@ -91,9 +121,23 @@ public @interface Wrapped {
       Pair<Wrapped, Set<Annotation>> nextAnnotations = nextAnnotations(annotations, Wrapped.class);
       if (nextAnnotations == null) return null;
 
-      JsonAdapter<Object> adapter = moshi.adapter(type, nextAnnotations.second);
       Wrapped wrapped = nextAnnotations.first;
-      return new WrappedJsonAdapter<>(adapter, wrapped.path(), wrapped.failOnNotFound());
+      JsonPathPlan path = JsonPathPlan.compile(wrapped.path());
+      if (wrapped.stacklessFailures()) path = path.stackless();
+
+      Type valueType = type;
+      if (path.isMultiValued()) {
+        Class<?> rawType = Types.getRawType(type);
+        if (path.multiValuedSteps() > 1 || (rawType != List.class && rawType != Collection.class)) {
+          throw new IllegalArgumentException("Wrapped path " + path + " of " + type
+              + " must contain a single [*] segment and be declared as a List or Collection.");
+        }
+        valueType = Types.collectionElementType(type, Collection.class);
+      }
+
+      JsonAdapter<Object> adapter = moshi.adapter(valueType, nextAnnotations.second);
+      return new WrappedJsonAdapter<>(adapter, path, wrapped.failOnNotFound(),
+          wrapped.stopAfterMatch(), "wrapped");
     }
   };
 
@@ -106,6 +150,18 @@ public @interface Wrapped {
 
     /** Create a new instance of {@link Wrapped} with the specified JSON path. */
     public static Wrapped create(final boolean failOnNotFound, final String... path) {
+      return create(failOnNotFound, false, path);
+    }
+
+    /** Create a new instance of {@link Wrapped} with the specified JSON path. */
+    public static Wrapped create(final boolean failOnNotFound, final boolean stopAfterMatch,
+        final String... path) {
+      return create(failOnNotFound, stopAfterMatch, false, path);
+    }
+
+    /** Create a new instance of {@link Wrapped} with the specified JSON path. */
+    public static Wrapped create(final boolean failOnNotFound, final boolean stopAfterMatch,
+        final boolean stacklessFailures, final String... path) {
       return new Wrapped() {
         @Override public Class<? extends Annotation> annotationType() {
           return Wrapped.class;
@@ -119,9 +175,19 @@ public @interface Wrapped {
           return failOnNotFound;
         }
 
+        @Override public boolean stopAfterMatch() {
+          return stopAfterMatch;
+        }
+
+        @Override public boolean stacklessFailures() {
+          return stacklessFailures;
+        }
+
         @Override public int hashCode() {
           int result = Arrays.hashCode(path);
           result = 43 * result + (failOnNotFound ? 1 : 0);
+          result = 43 * result + (stopAfterMatch ? 1 : 0);
+          result = 43 * result + (stacklessFailures ? 1 : 0);
           return result;
         }
 
@@ -131,13 +197,17 @@ public @interface Wrapped {
 
           Wrapped wrapped = (Wrapped) obj;
           return Arrays.equals(path, wrapped.path())
-              && failOnNotFound == wrapped.failOnNotFound();
+              && failOnNotFound == wrapped.failOnNotFound()
+              && stopAfterMatch == wrapped.stopAfterMatch()
+              && stacklessFailures == wrapped.stacklessFailures();
         }
 
         @Override public String toString() {
           return "Wrapped("
               + "path=" + Arrays.asList(path)
               + ", failOnNotFound=" + failOnNotFound
+              + ", stopAfterMatch=" + stopAfterMatch
+              + ", stacklessFailures=" + stacklessFailures
               + ")";
         }
       };
@@ -16,114 +16,77 @@
 package com.serjltt.moshi.adapters;
 
 import com.squareup.moshi.JsonAdapter;
-import com.squareup.moshi.JsonDataException;
 import com.squareup.moshi.JsonReader;
 import com.squareup.moshi.JsonWriter;
 import java.io.IOException;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
 
 /** {@linkplain JsonAdapter} that unwraps the type/field annotated with {@linkplain Wrapped}. */
 final class WrappedJsonAdapter<T> extends JsonAdapter<T> {
-  private final JsonAdapter<T> delegate;
-  private final String[] path;
+  private final JsonAdapter<Object> delegate;
+  private final JsonPathPlan path;
   private final boolean failOnNotFound;
+  private final boolean stopAfterMatch;
+  /** The name of the qualifier in {@link #toString()}. */
+  private final String qualifier;
 
-  WrappedJsonAdapter(JsonAdapter<T> delegate, String[] path, boolean failOnNotFound) {
+  /**
+   * Creates an adapter that reads the value(s) at the end of {@code path} with {@code delegate}.
+   * If the path {@linkplain JsonPathPlan#isMultiValued() is multi valued} the adapter produces
+   * a {@link List} of those values.
+   */
+  WrappedJsonAdapter(JsonAdapter<Object> delegate, JsonPathPlan path, boolean failOnNotFound,
+      boolean stopAfterMatch, String qualifier) {
+    this.qualifier = qualifier;
     this.delegate = delegate;
     this.path = path;
     this.failOnNotFound = failOnNotFound;
+    this.stopAfterMatch = stopAfterMatch;
   }
 
   @Override public T fromJson(JsonReader reader) throws IOException {
-    return fromJson(delegate, reader, path, 0, failOnNotFound);
-  }
-
-  @Override public void toJson(JsonWriter writer, T value) throws IOException {
-    toJson(delegate, writer, value, path, 0);
-  }
-
-  @Override public String toString() {
-    return delegate + String.format(".wrapped(%s)", Arrays.asList(path))
-        + (failOnNotFound ? ".failOnNotFound()" : "");
+    // Leaving the source unread is only safe if no other adapter will read after this one.
+    boolean stop = stopAfterMatch && "$".equals(reader.getPath());
+    if (path.isMultiValued()) {
+      List<Object> values = new ArrayList<>();
+      path.read(reader, delegate, failOnNotFound, stop, values);
+      @SuppressWarnings("unchecked") // The factory ensures that T is a List.
+      T result = (T) values;
+      return result;
+    }
+    @SuppressWarnings("unchecked") // This puts full responsibility on the caller.
+    T result = (T) path.read(reader, delegate, failOnNotFound, stop, null);
+    return result;
   }
 
   /**
-   * Recursively goes through the json and finds the given root. Returns the object wrapped by the
-   * provided {@code path}.
+   * Reads the value like {@link #fromJson}, but returns {@link JsonPathPlan#NOT_FOUND} instead of
+   * failing, when the path is not found. {@code reader} must be discarded afterwards, as it may be
+   * left in the middle of the json.
    */
-  private static <T> T fromJson(JsonAdapter<T> adapter, JsonReader reader, String[] path,
-      int index, boolean failOnNotFound) throws IOException {
-    if (index == path.length) {
-      //noinspection unchecked This puts full responsibility on the caller.
-      return adapter.fromJson(reader);
-    } else {
-      reader.beginObject();
-      Exception caughtException = null;
-      try {
-        String root = path[index];
-        while (reader.hasNext()) {
-          if (reader.nextName().equals(root)) {
-            if (reader.peek() == JsonReader.Token.NULL) {
-              // Consumer expects a value, not a null.
-              if (failOnNotFound) {
-                throw new JsonDataException(String.format(
-                    "Wrapped Json expected at path: %s. Found null at %s",
-                    Arrays.asList(path), reader.getPath()
-                ));
-              }
-
-              return reader.nextNull();
-            }
-            return fromJson(adapter, reader, path, ++index, failOnNotFound);
-          } else {
-            reader.skipValue();
-          }
-        }
-      } catch (Exception e) {
-        caughtException = e;
-      } finally {
-        // If the try block throw an exception, rethrow it up the stack.
-        if (caughtException instanceof IOException) {
-          //noinspection ThrowFromFinallyBlock
-          throw (IOException) caughtException;
-        } else if (caughtException instanceof JsonDataException) {
-          //noinspection ThrowFromFinallyBlock
-          throw (JsonDataException) caughtException;
-        } else if (caughtException != null) {
-          //noinspection ThrowFromFinallyBlock
-          throw new AssertionError(caughtException);
-        }
-        // If the json has an additional key, that was not red, we ignore it.
-        while (reader.hasNext()) {
-          reader.skipValue();
-        }
-        // End object, so that other adapters (if any) can proceed.
-        reader.endObject();
-      }
-      throw new JsonDataException(String.format(
-          "Wrapped Json expected at path: %s. Actual: %s",
-          Arrays.asList(path), reader.getPath()));
+  Object fromJsonOrNotFound(JsonReader reader) throws IOException {
+    if (path.isMultiValued()) {
+      List<Object> values = new ArrayList<>();
+      Object result = path.readOrNotFound(reader, delegate, failOnNotFound, values);
+      return result == JsonPathPlan.NOT_FOUND ? result : values;
     }
+    return path.readOrNotFound(reader, delegate, failOnNotFound, null);
   }
 
-  /**
-   * Recursively writes the respective roots forming a json object that resembles the {@code path}
-   * wrapping the type of the {@code adapter}.
-   */
-  private static <T> void toJson(JsonAdapter<T> adapter, JsonWriter writer, T value,
-      String[] path, int index) throws IOException {
+  @Override public void toJson(JsonWriter writer, T value) throws IOException {
     if (value != null || writer.getSerializeNulls()) {
-      if (index == path.length) {
-        adapter.toJson(writer, value);
-      } else {
-        writer.beginObject();
-        writer.name(path[index]);
-        toJson(adapter, writer, value, path, ++index);
-        writer.endObject();
-      }
+      path.write(writer, delegate, value);
     } else {
       // If we don't propagate the null value the writer will throw.
       writer.nullValue();
     }
   }
+
+  @Override public String toString() {
+    return delegate + String.format(".%s(%s)", qualifier, path)
+        + (failOnNotFound ? ".failOnNotFound()" : "")
+        + (stopAfterMatch ? ".stopAfterMatch()" : "")
+        + (path.isStackless() ? ".stacklessFailures()" : "");
+  }
 }
@@ -11,13 +11,17 @@ import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
 import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import okio.Buffer;
 import org.junit.Test;
 
 import static com.serjltt.moshi.adapters.DefaultOnDataMismatchAdapterTest.Fruit.APPLE;
 import static com.serjltt.moshi.adapters.DefaultOnDataMismatchAdapterTest.Fruit.BANANA;
 import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.junit.Assert.fail;
 
 public final class DefaultOnDataMismatchAdapterTest {
   @Test public void deserializeMismatch() throws IOException {
@@ -30,6 +34,142 @@ public final class DefaultOnDataMismatchAdapterTest {
     assertThat(fruit).isEqualTo(BANANA);
   }
 
+  @Test public void mismatchedValuesAreSkipped() throws IOException {
+    JsonAdapter<List<Fruit>> adapter = buildMoshi(newFruitFactory())
+        .adapter(Types.newParameterizedType(List.class, Fruit.class));
+
+    List<Fruit> fruits = adapter.fromJson("[\"banana\", {\"mango\": [1, 2]}, 3, [], \"apple\"]");
+    assertThat(fruits).containsExactly(BANANA, null, null, null, APPLE);
+  }
+
+  @Test public void valuesExceedingTheMaximumSizeAreSkipped() throws IOException {
+    Moshi moshi = buildMoshi(DefaultOnDataMismatchAdapter.newFactory(Fruit.class, APPLE, 16));
+    DefaultOnDataMismatchAdapter<Fruit> fruitAdapter =
+        (DefaultOnDataMismatchAdapter<Fruit>) moshi.<Fruit>adapter(Fruit.class);
+    JsonAdapter<List<Fruit>> adapter =
+        moshi.adapter(Types.newParameterizedType(List.class, Fruit.class));
+
+    List<Fruit> fruits = adapter.fromJson("[\"banana\", "
+        + "{\"mango\": [1, 2, 3, 4, 5, 6, 7, 8, 9], \"kiwi\": {\"a\": [[]]}}, "
+        + "\"banana\", [\"0123456789abcdefgh\", 1]]");
+    assertThat(fruits).containsExactly(BANANA, APPLE, BANANA, APPLE);
+    assertThat(fruitAdapter.overflowCount()).isEqualTo(2);
+
+    // Readers that fail on unknown values refuse to skip, the rest is read instead.
+    fruits = adapter.failOnUnknown().fromJson("[\"banana\", "
+        + "{\"mango\": [1, 2, 3, 4, 5, 6, 7, 8, 9], \"kiwi\": {\"a\": [[]]}}, \"banana\"]");
+    assertThat(fruits).containsExactly(BANANA, APPLE, BANANA);
+    assertThat(fruitAdapter.overflowCount()).isEqualTo(3);
+  }
+
+  @Test public void singleTokenExceedingTheMaximumSizeIsSkipped() throws IOException {
+    Moshi moshi = buildMoshi(DefaultOnDataMismatchAdapter.newFactory(Fruit.class, APPLE, 16));
+    DefaultOnDataMismatchAdapter<Fruit> fruitAdapter =
+        (DefaultOnDataMismatchAdapter<Fruit>) moshi.<Fruit>adapter(Fruit.class);
+    JsonAdapter<List<Fruit>> adapter =
+        moshi.adapter(Types.newParameterizedType(List.class, Fruit.class));
+
+    char[] chars = new char[100000];
+    Arrays.fill(chars, 'a');
+    String large = "\"" + new String(chars) + "\"";
+
+    assertThat(fruitAdapter.fromJson(large)).isEqualTo(APPLE);
+    // The budget is spent before the second string, which is skipped without being decoded.
+    List<Fruit> fruits = adapter.fromJson("[" + large + ", [\"0123456789abc\", " + large
+        + "], {\"0123456789ab\": 1, " + large + ": 2}, \"banana\"]");
+    assertThat(fruits).containsExactly(APPLE, APPLE, APPLE, BANANA);
+    assertThat(fruitAdapter.overflowCount()).isEqualTo(4);
+  }
+
+  @Test public void maximumSizeMustBePositive() {
+    try {
+      DefaultOnDataMismatchAdapter.newFactory(Fruit.class, APPLE, 0);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasMessage("maxBufferedBytes must be positive: 0");
+    }
+  }
+
+  @Test public void qualifierBuildsDefaultsLazily() throws IOException {
+    final AtomicInteger built = new AtomicInteger();
+    Moshi moshi = buildMoshi(new DefaultOnDataMismatch.Registry()
+        .register(Fruit.class, new DefaultOnDataMismatch.Supplier<Fruit>() {
+          @Override public Fruit get() {
+            built.incrementAndGet();
+            return APPLE;
+          }
+        })
+        .register(Types.newParameterizedType(List.class, String.class),
+            new DefaultOnDataMismatch.Supplier<List<String>>() {
+              @Override public List<String> get() {
+                return Collections.singletonList("fallback");
+              }
+            })
+        .newFactory());
+    JsonAdapter<Basket> adapter = moshi.adapter(Basket.class);
+
+    Basket basket = adapter.fromJson("{\"first\":\"banana\",\"second\":\"banana\"}");
+    assertThat(basket.first).isEqualTo(BANANA);
+    assertThat(basket.second).isEqualTo(BANANA);
+    assertThat(built.get()).isEqualTo(0);
+
+    basket = adapter.fromJson("{\"first\":\"mango\",\"second\":{},\"names\":[1,[]]}");
+    assertThat(basket.first).isEqualTo(APPLE);
+    assertThat(basket.second).isEqualTo(APPLE);
+    assertThat(basket.names).containsExactly("fallback");
+    assertThat(built.get()).isEqualTo(1);
+
+    String toJson = adapter.toJson(basket);
+    assertThat(toJson)
+        .isEqualTo("{\"first\":\"apple\",\"names\":[\"fallback\"],\"second\":\"apple\"}");
+  }
+
+  @Test public void qualifierRequiresRegisteredType() {
+    Moshi moshi = buildMoshi(new DefaultOnDataMismatch.Registry().newFactory());
+
+    try {
+      moshi.adapter(Basket.class);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasMessageContaining("No default value registered for ");
+    }
+  }
+
+  static class Basket {
+    @DefaultOnDataMismatch Fruit first;
+    @DefaultOnDataMismatch Fruit second;
+    @DefaultOnDataMismatch List<String> names;
+  }
+
+  @Test public void wrappedDelegateFallsBackWithoutAnException() throws IOException {
+    Moshi moshi = new Moshi.Builder()
+        .add(new DefaultOnDataMismatch.Registry()
+            .register(Fruit.class, new DefaultOnDataMismatch.Supplier<Fruit>() {
+              @Override public Fruit get() {
+                return APPLE;
+              }
+            })
+            .newFactory())
+        .add(Wrapped.ADAPTER_FACTORY)
+        .build();
+    JsonAdapter<Crate> adapter = moshi.adapter(Crate.class);
+
+    assertThat(adapter.fromJson("{\"fruit\":{\"name\":\"banana\"}}").fruit).isEqualTo(BANANA);
+    assertThat(adapter.fromJson("{\"fruit\":{\"color\":\"yellow\"}}").fruit).isEqualTo(APPLE);
+    assertThat(adapter.fromJson("{\"fruit\":null}").fruit).isEqualTo(APPLE);
+    assertThat(adapter.fromJson("{\"fruit\":{\"name\":\"mango\"}}").fruit).isEqualTo(APPLE);
+
+    // A missing path is reported to the adapter with a sentinel, not with an exception.
+    WrappedJsonAdapter<?> wrapped = (WrappedJsonAdapter<?>) moshi.adapter(Fruit.class,
+        Collections.singleton(Wrapped.Factory.create("name")));
+    JsonReader reader = JsonReader.of(new Buffer().writeUtf8("{\"color\":\"yellow\"}"));
+    assertThat(wrapped.fromJsonOrNotFound(reader)).isSameAs(JsonPathPlan.NOT_FOUND);
+  }
+
+  static class Crate {
+    @DefaultOnDataMismatch @Wrapped(path = "name") Fruit fruit;
+  }
+
   @Test public void serialize() {
     String fruit = buildMoshi(newFruitFactory()).adapter(Fruit.class).toJson(APPLE);
     assertThat(fruit).isEqualTo("\"apple\"");
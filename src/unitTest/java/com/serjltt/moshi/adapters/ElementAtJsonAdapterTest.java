@@ -60,6 +60,51 @@ public final class ElementAtJsonAdapterTest {
     assertThat(toJson).isEqualTo("{\"obj\":[\"two\"]}");
   }
 
+  @Test public void onlyTheElementAtIndexIsDecoded() throws Exception {
+    JsonAdapter<Data> adapter = moshi.adapter(Data.class);
+
+    // Neither the object, nor the number can be decoded as a String.
+    Data fromJson = adapter.fromJson("{\n"
+        + "  \"obj\": [\n"
+        + "    {\"one\": [1, 2]},\n"
+        + "    \"two\",\n"
+        + "    3\n"
+        + "  ]\n"
+        + "}");
+    assertThat(fromJson.str).isEqualTo("two");
+  }
+
+  @Test public void failOnUnknownReaderDecodesTheOtherElements() throws Exception {
+    JsonAdapter<Data> adapter = moshi.adapter(Data.class).failOnUnknown();
+
+    Data fromJson = adapter.fromJson("{\"obj\": [\"one\", \"two\", \"three\"]}");
+    assertThat(fromJson.str).isEqualTo("two");
+
+    try {
+      adapter.fromJson("{\"obj\": [\"one\", \"two\", {}]}");
+      fail();
+    } catch (JsonDataException e) {
+      assertThat(e).hasMessage("Expected a string but was BEGIN_OBJECT at path $.obj[2]");
+    }
+  }
+
+  @Test public void negativeIndex() throws Exception {
+    JsonAdapter<Data4> adapter = moshi.adapter(Data4.class);
+
+    Data4 fromJson = adapter.fromJson("{\n"
+        + "  \"obj\": [\"one\", {\"two\": 2}, \"three\", [4], 5]\n"
+        + "}");
+    assertThat(fromJson.str).isEqualTo("three");
+
+    String toJson = adapter.toJson(fromJson);
+    assertThat(toJson).isEqualTo("{\"obj\":[\"three\"]}");
+
+    fromJson = adapter.fromJson("{\n"
+        + "  \"obj\": [\"one\", \"two\"]\n"
+        + "}");
+    assertThat(fromJson.str).isNull();
+  }
+
   @Test public void fromJsonOnEmptyArrayReturnsNull() throws Exception {
     assertNullReturn("{\n"
         + "  \"obj\": []\n"
@@ -200,4 +245,9 @@ public final class ElementAtJsonAdapterTest {
     @AlwaysElementAtIndexOne
     @Json(name = "obj") String str;
   }
+
+  private static class Data4 {
+    @ElementAt(index = -3)
+    @Json(name = "obj") String str;
+  }
 }
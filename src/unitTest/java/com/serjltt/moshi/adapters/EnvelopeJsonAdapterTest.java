@@ -0,0 +1,210 @@
+/*
+ * Copyright 2016 Serj Lotutovici
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.serjltt.moshi.adapters;
+
+import com.squareup.moshi.Json;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonDataException;
+import com.squareup.moshi.Moshi;
+import java.lang.annotation.Annotation;
+import java.util.Collections;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public final class EnvelopeJsonAdapterTest {
+  // Lazy adapters work only within the context of moshi.
+  private final Moshi moshi = new Moshi.Builder()
+      .add(Envelope.ADAPTER_FACTORY)
+      .add(new Custom.CustomAdapter()) // We need to check that other annotations are not lost.
+      .build();
+
+  @Test public void projectsAllFieldsInOnePass() throws Exception {
+    JsonAdapter<UserResponse> adapter = moshi.adapter(UserResponse.class);
+
+    UserResponse fromJson = adapter.fromJson("{\n"
+        + "  \"meta\": {\"data\": {\"user\": \"not this one\"}},\n"
+        + "  \"data\": {\n"
+        + "    \"user\": {\"name\": \"Ash\"},\n"
+        + "    \"paging\": [1, 2, 3],\n"
+        + "    \"stats\": {\n"
+        + "      \"wins\": 42\n"
+        + "    }\n"
+        + "  },\n"
+        + "  \"status\": \"OK\",\n"
+        + "  \"request_id\": \"abc\"\n"
+        + "}");
+    assertThat(fromJson.user.name).isEqualTo("Ash");
+    assertThat(fromJson.wins).isEqualTo(42);
+    assertThat(fromJson.status).isEqualTo("OKCustom");
+    assertThat(fromJson.requestId).isEqualTo("abc");
+
+    String toJson = adapter.toJson(fromJson);
+    assertThat(toJson).isEqualTo("{"
+        + "\"data\":{\"user\":{\"name\":\"Ash\"},\"stats\":{\"wins\":42}},"
+        + "\"status\":\"OK\","
+        + "\"request_id\":\"abc\""
+        + "}");
+  }
+
+  @Test public void nullEnvelope() throws Exception {
+    JsonAdapter<UserResponse> adapter = moshi.adapter(UserResponse.class);
+    assertThat(adapter.fromJson("null")).isNull();
+    assertThat(adapter.toJson(null)).isEqualTo("null");
+  }
+
+  @Test public void omitsObjectsWithoutValues() throws Exception {
+    JsonAdapter<UserResponse> adapter = moshi.adapter(UserResponse.class);
+
+    UserResponse response = new UserResponse();
+    response.wins = 1;
+    assertThat(adapter.toJson(response)).isEqualTo("{\"data\":{\"stats\":{\"wins\":1}}}");
+    assertThat(adapter.serializeNulls().toJson(response)).isEqualTo("{"
+        + "\"data\":{\"user\":null,\"stats\":{\"wins\":1}},"
+        + "\"status\":null,"
+        + "\"request_id\":null"
+        + "}");
+  }
+
+  @Test public void failsOnMissingPath() throws Exception {
+    JsonAdapter<UserResponse> adapter = moshi.adapter(UserResponse.class);
+
+    try {
+      adapter.fromJson("{\"data\": {\"user\": {\"name\": \"Ash\"}}}");
+      fail();
+    } catch (JsonDataException e) {
+      assertThat(e).hasMessage("Wrapped Json expected at path: [data, stats, wins]. Actual: $");
+    }
+  }
+
+  @Test public void failsOnNull() throws Exception {
+    JsonAdapter<UserResponse> adapter = moshi.adapter(UserResponse.class);
+
+    try {
+      adapter.fromJson("{\"data\": {\"user\": {\"name\": \"Ash\"}, \"stats\": null}}");
+      fail();
+    } catch (JsonDataException e) {
+      assertThat(e).hasMessage(
+          "Wrapped Json expected at path: [data, stats, wins]. Found null at $.data.stats");
+    }
+  }
+
+  @Test public void stacklessFailures() throws Exception {
+    JsonAdapter<Stackless> adapter = moshi.adapter(Stackless.class);
+
+    try {
+      adapter.fromJson("{\"a\": {}}");
+      fail();
+    } catch (JsonDataException e) {
+      assertThat(e).hasMessage("Wrapped Json expected at path: [a, b]. Not found");
+      assertThat(e.getStackTrace()).isEmpty();
+    }
+    try {
+      adapter.fromJson("{\"a\": null}");
+      fail();
+    } catch (JsonDataException e) {
+      assertThat(e).hasMessage("Wrapped Json expected at path: [a, b]. Found null");
+      assertThat(e.getStackTrace()).isEmpty();
+    }
+  }
+
+  @Test public void nullWhenNotFailingOnNotFound() throws Exception {
+    JsonAdapter<Lenient> adapter = moshi.adapter(Lenient.class);
+
+    Lenient fromJson = adapter.fromJson("{\"a\": {\"b\": null, \"c\": 1}, \"d\": null}");
+    assertThat(fromJson.b).isNull();
+    assertThat(fromJson.c).isEqualTo(1);
+    assertThat(fromJson.e).isNull();
+  }
+
+  @Test public void conflictingPaths() throws Exception {
+    try {
+      moshi.adapter(Conflicting.class);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasMessageStartingWith("Envelope class "
+          + "com.serjltt.moshi.adapters.EnvelopeJsonAdapterTest$Conflicting declares "
+          + "conflicting paths");
+    }
+  }
+
+  @Test public void arraySegmentsAreNotSupported() throws Exception {
+    try {
+      moshi.adapter(WithArray.class);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasMessageStartingWith("Wrapped path [a, [0]] of ");
+    }
+  }
+
+  @Test public void escapedIndexSegmentIsAnObjectKey() throws Exception {
+    JsonAdapter<EscapedArray> adapter = moshi.adapter(EscapedArray.class);
+    EscapedArray fromJson = adapter.fromJson("{\"a\": {\"[0]\": \"x\"}}");
+    assertThat(fromJson.a).isEqualTo("x");
+  }
+
+  @Test public void toStringReflectsEnvelope() throws Exception {
+    JsonAdapter<UserResponse> adapter = moshi.adapter(UserResponse.class);
+    assertThat(adapter.toString()).isEqualTo("JsonAdapter("
+        + "com.serjltt.moshi.adapters.EnvelopeJsonAdapterTest$UserResponse).envelope().nullSafe()");
+  }
+
+  @Test public void factoryIgnoresUnsupportedTypes() throws Exception {
+    JsonAdapter<?> adapter1 = Envelope.ADAPTER_FACTORY
+        .create(User.class, Collections.<Annotation>emptySet(), moshi);
+    assertThat(adapter1).isNull();
+
+    JsonAdapter<?> adapter2 = Envelope.ADAPTER_FACTORY
+        .create(UserResponse.class, Collections.singleton(Wrapped.Factory.create("")), moshi);
+    assertThat(adapter2).isNull();
+  }
+
+  private static class User {
+    String name;
+  }
+
+  @Envelope private static class UserResponse {
+    @Wrapped(path = { "data", "user" }) User user;
+    @Wrapped(path = { "data", "stats", "wins" }) int wins;
+    @Custom String status;
+    @Json(name = "request_id") String requestId;
+    transient String ignored;
+  }
+
+  @Envelope private static class Lenient {
+    @Wrapped(path = { "a", "b" }, failOnNotFound = false) String b;
+    @Wrapped(path = { "a", "c" }) int c;
+    @Wrapped(path = { "d", "e" }, failOnNotFound = false) String e;
+  }
+
+  @Envelope private static class Stackless {
+    @Wrapped(path = { "a", "b" }, stacklessFailures = true) String b;
+  }
+
+  @Envelope private static class Conflicting {
+    @Wrapped(path = { "a", "b" }) String b;
+    @Wrapped(path = "a") String a;
+  }
+
+  @Envelope private static class EscapedArray {
+    @Wrapped(path = { "a", "\\[0]" }) String a;
+  }
+
+  @Envelope private static class WithArray {
+    @Wrapped(path = { "a", "[0]" }) String a;
+  }
+}
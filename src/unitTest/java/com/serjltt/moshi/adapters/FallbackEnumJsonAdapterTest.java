@@ -20,8 +20,17 @@ import com.squareup.moshi.Json;
 import com.squareup.moshi.JsonAdapter;
 import com.squareup.moshi.JsonDataException;
 import com.squareup.moshi.Moshi;
+import com.squareup.moshi.Types;
 import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.junit.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -42,6 +51,46 @@ public final class FallbackEnumJsonAdapterTest {
     assertThat(adapter.toJson(Roshambo.SCISSORS)).isEqualTo("\"scr\"");
   }
 
+  @Test public void writesEscapedNames() throws Exception {
+    JsonAdapter<Escaped> adapter = moshi.adapter(Escaped.class);
+    assertThat(adapter.toJson(Escaped.QUOTED)).isEqualTo("\"a\\\"b\"");
+    assertThat(adapter.toJson(Escaped.UNICODE)).isEqualTo("\"\\u2028\u00e9\"");
+    assertThat(adapter.fromJson(adapter.toJson(Escaped.QUOTED))).isEqualTo(Escaped.QUOTED);
+    assertThat(adapter.toJsonValue(Escaped.QUOTED)).isEqualTo("a\"b");
+
+    JsonAdapter<List<Escaped>> list =
+        moshi.adapter(Types.newParameterizedType(List.class, Escaped.class));
+    assertThat(list.indent("  ").toJson(Arrays.asList(Escaped.QUOTED, Escaped.UNKNOWN)))
+        .isEqualTo("[\n  \"a\\\"b\",\n  \"UNKNOWN\"\n]");
+  }
+
+  @Test public void mapKeysRoundTrip() throws Exception {
+    Map<Escaped, String> map = new EnumMap<>(Escaped.class);
+    map.put(Escaped.QUOTED, "x");
+    map.put(Escaped.UNKNOWN, "y");
+    String json = "{\"a\\\"b\":\"x\",\"UNKNOWN\":\"y\"}";
+
+    JsonAdapter<Map<Escaped, String>> adapter =
+        moshi.adapter(Types.newParameterizedType(Map.class, Escaped.class, String.class));
+    assertThat(adapter.toJson(map)).isEqualTo(json);
+    assertThat(adapter.fromJson(json)).isEqualTo(map);
+
+    // Moshi's own map adapter promotes the enum values to names.
+    Moshi enumsOnly = new Moshi.Builder()
+        .add(new JsonAdapter.Factory() {
+          @Override public JsonAdapter<?> create(Type type, Set<? extends Annotation> annotations,
+              Moshi moshi) {
+            if (!Types.getRawType(type).isEnum()) return null;
+            return FallbackEnum.ADAPTER_FACTORY.create(type, annotations, moshi);
+          }
+        })
+        .build();
+    JsonAdapter<Map<Escaped, String>> builtIn =
+        enumsOnly.adapter(Types.newParameterizedType(Map.class, Escaped.class, String.class));
+    assertThat(builtIn.toJson(map)).isEqualTo(json);
+    assertThat(builtIn.fromJson(json)).isEqualTo(map);
+  }
+
   @Test public void fallbackEnum() throws Exception {
     JsonAdapter<Roshambo> adapter = moshi.adapter(Roshambo.class).lenient();
     assertThat(adapter.fromJson("\"SPOCK\"")).isEqualTo(Roshambo.UNKNOWN);
@@ -84,6 +133,269 @@ public final class FallbackEnumJsonAdapterTest {
     }
   }
 
+  @Test public void aliases() throws Exception {
+    JsonAdapter<Status> adapter = moshi.adapter(Status.class).lenient();
+    assertThat(adapter.fromJson("\"enabled\"")).isEqualTo(Status.ACTIVE);
+    assertThat(adapter.fromJson("\"on\"")).isEqualTo(Status.ACTIVE);
+    assertThat(adapter.fromJson("\"ON\"")).isEqualTo(Status.UNKNOWN);
+    assertThat(adapter.toJson(Status.ACTIVE)).isEqualTo("\"ACTIVE\"");
+  }
+
+  @Test public void caseInsensitive() throws Exception {
+    JsonAdapter<Mode> adapter = moshi.adapter(Mode.class).lenient();
+    assertThat(adapter.fromJson("\"ACTIVE\"")).isEqualTo(Mode.ACTIVE);
+    assertThat(adapter.fromJson("\"active\"")).isEqualTo(Mode.ACTIVE);
+    assertThat(adapter.fromJson("\"Active\"")).isEqualTo(Mode.ACTIVE);
+    assertThat(adapter.fromJson("\"aCtIvE\"")).isEqualTo(Mode.ACTIVE);
+    assertThat(adapter.fromJson("\"Enabled\"")).isEqualTo(Mode.ACTIVE);
+    assertThat(adapter.fromJson("\"iN-aCtIvE\"")).isEqualTo(Mode.INACTIVE);
+    assertThat(adapter.fromJson("\"actives\"")).isEqualTo(Mode.UNKNOWN);
+    assertThat(adapter.toJson(Mode.INACTIVE)).isEqualTo("\"in-active\"");
+    assertThat(moshi.adapter(Mode.class).toString()).isEqualTo(
+        "JsonAdapter(com.serjltt.moshi.adapters.FallbackEnumJsonAdapterTest$Mode)"
+            + ".fallbackEnum(UNKNOWN).caseInsensitive().nullSafe()");
+  }
+
+  @Test public void caseInsensitiveManyConstants() throws Exception {
+    JsonAdapter<Big> adapter = moshi.adapter(Big.class).lenient();
+    for (Big constant : Big.values()) {
+      String name = constant.name();
+      assertThat(adapter.fromJson("\"" + name + "\"")).isEqualTo(constant);
+      assertThat(adapter.fromJson("\"" + name.toLowerCase() + "\"")).isEqualTo(constant);
+      assertThat(adapter.fromJson("\"" + name.charAt(0) + name.substring(1).toLowerCase()
+          .replace('_', '-') + "\"")).isEqualTo(name.indexOf('_') == -1 ? constant : Big.UNKNOWN);
+      assertThat(adapter.fromJson("\"x" + name + "\"")).isEqualTo(Big.UNKNOWN);
+    }
+    assertThat(adapter.fromJson("\"vAlUe_1_b\"")).isEqualTo(Big.VALUE_1_B);
+  }
+
+  @Test public void throwsOnAmbiguousNames() throws Exception {
+    try {
+      moshi.adapter(Ambiguous.class);
+      fail();
+    } catch (IllegalArgumentException expected) {
+      assertThat(expected).hasMessage("Name 'one' of "
+          + "com.serjltt.moshi.adapters.FallbackEnumJsonAdapterTest$Ambiguous matches both ONE"
+          + " and UNKNOWN ignoring case.");
+    }
+    try {
+      moshi.adapter(DuplicateAlias.class);
+      fail();
+    } catch (IllegalArgumentException expected) {
+      assertThat(expected).hasMessage("Name 'ONE' of "
+          + "com.serjltt.moshi.adapters.FallbackEnumJsonAdapterTest$DuplicateAlias is declared"
+          + " by both ONE and UNKNOWN.");
+    }
+  }
+
+  @Test public void reportsUnknownValues() throws Exception {
+    final List<String> unknown = new ArrayList<>();
+    Moshi moshi = new Moshi.Builder()
+        .add(FallbackEnum.Factory.create(new FallbackEnum.UnknownValueListener() {
+          @Override public void onUnknownValue(Class<? extends Enum<?>> enumType, String value) {
+            unknown.add(enumType.getSimpleName() + ":" + value);
+          }
+        }))
+        .build();
+
+    assertThat(moshi.adapter(Roshambo.class).fromJson("\"ROCK\"")).isEqualTo(Roshambo.ROCK);
+    assertThat(moshi.adapter(Roshambo.class).fromJson("\"SPOCK\"")).isEqualTo(Roshambo.UNKNOWN);
+    assertThat(moshi.adapter(Mode.class).fromJson("\"acTive\"")).isEqualTo(Mode.ACTIVE);
+    assertThat(moshi.adapter(Mode.class).fromJson("\"idle\"")).isEqualTo(Mode.UNKNOWN);
+    assertThat(unknown).containsExactly("Roshambo:SPOCK", "Mode:idle");
+  }
+
+  @Test public void enumSet() throws Exception {
+    JsonAdapter<Set<Roshambo>> adapter =
+        moshi.adapter(Types.newParameterizedType(Set.class, Roshambo.class));
+
+    Set<Roshambo> set = adapter.fromJson("[\"scr\", \"SPOCK\", \"ROCK\", \"ROCK\"]");
+    assertThat(set).isInstanceOf(EnumSet.class)
+        .containsExactly(Roshambo.ROCK, Roshambo.SCISSORS, Roshambo.UNKNOWN);
+    assertThat(adapter.toJson(set)).isEqualTo("[\"ROCK\",\"scr\",\"UNKNOWN\"]");
+    assertThat(adapter.fromJson("null")).isNull();
+    assertThat(adapter.fromJson("[null, \"ROCK\", null]")).containsExactly(Roshambo.ROCK);
+    assertThat(adapter.toString()).isEqualTo("JsonAdapter(Set<JsonAdapter("
+        + "com.serjltt.moshi.adapters.FallbackEnumJsonAdapterTest$Roshambo)"
+        + ".fallbackEnum(UNKNOWN)>).nullSafe()");
+
+    JsonAdapter<EnumSet<Permission>> dropping =
+        moshi.adapter(Types.newParameterizedType(EnumSet.class, Permission.class));
+    assertThat(dropping.fromJson("[\"WRITE\", \"EXECUTE\", \"read\"]"))
+        .containsExactly(Permission.READ, Permission.WRITE);
+  }
+
+  @Test public void enumMap() throws Exception {
+    JsonAdapter<Map<Roshambo, Integer>> adapter =
+        moshi.adapter(Types.newParameterizedType(Map.class, Roshambo.class, Integer.class));
+
+    Map<Roshambo, Integer> map =
+        adapter.fromJson("{\"scr\": 1, \"SPOCK\": 2, \"LIZARD\": 3, \"ROCK\": 4}");
+    assertThat(map).isInstanceOf(EnumMap.class);
+    assertThat(map.toString()).isEqualTo("{ROCK=4, SCISSORS=1, UNKNOWN=2}");
+    assertThat(adapter.toJson(map)).isEqualTo("{\"ROCK\":4,\"scr\":1,\"UNKNOWN\":2}");
+
+    try {
+      adapter.fromJson("{\"ROCK\": 1, \"ROCK\": 2}");
+      fail();
+    } catch (JsonDataException expected) {
+      assertThat(expected).hasMessage("Map key 'ROCK' has multiple values at path $.ROCK: 1 and 2");
+    }
+
+    // The fallback name wins over unknown names, in either order.
+    assertThat(adapter.fromJson("{\"SPOCK\": 1, \"UNKNOWN\": 2, \"LIZARD\": 3}").toString())
+        .isEqualTo("{UNKNOWN=2}");
+    assertThat(adapter.fromJson("{\"UNKNOWN\": 2, \"SPOCK\": 1, \"LIZARD\": 3}").toString())
+        .isEqualTo("{UNKNOWN=2}");
+    try {
+      adapter.fromJson("{\"SPOCK\": 1, \"UNKNOWN\": 2, \"UNKNOWN\": 3}");
+      fail();
+    } catch (JsonDataException expected) {
+      assertThat(expected)
+          .hasMessage("Map key 'UNKNOWN' has multiple values at path $.UNKNOWN: 2 and 3");
+    }
+
+    JsonAdapter<Map<Permission, Boolean>> dropping =
+        moshi.adapter(Types.newParameterizedType(EnumMap.class, Permission.class, Boolean.class));
+    assertThat(dropping.fromJson("{\"EXECUTE\": true, \"write\": false}").toString())
+        .isEqualTo("{WRITE=false}");
+    assertThat(dropping.failOnUnknown().fromJson("{\"EXECUTE\": true, \"write\": false}")
+        .toString()).isEqualTo("{WRITE=false}");
+    assertThat(adapter.failOnUnknown().fromJson("{\"SPOCK\": 1, \"LIZARD\": 2}").toString())
+        .isEqualTo("{UNKNOWN=1}");
+  }
+
+  @Test public void collectionsReportUnknownValues() throws Exception {
+    final List<String> unknown = new ArrayList<>();
+    Moshi moshi = new Moshi.Builder()
+        .add(FallbackEnum.Factory.create(new FallbackEnum.UnknownValueListener() {
+          @Override public void onUnknownValue(Class<? extends Enum<?>> enumType, String value) {
+            unknown.add(value);
+          }
+        }))
+        .build();
+
+    moshi.adapter(Types.newParameterizedType(Set.class, Permission.class))
+        .fromJson("[\"EXECUTE\"]");
+    moshi.adapter(Types.newParameterizedType(Map.class, Permission.class, String.class))
+        .fromJson("{\"DELETE\": \"\"}");
+    assertThat(unknown).containsExactly("EXECUTE", "DELETE");
+  }
+
+  @Test public void ignoresCollectionsOfUnannotatedEnums() throws Exception {
+    JsonAdapter<?> adapter = FallbackEnum.ADAPTER_FACTORY.create(
+        Types.newParameterizedType(Set.class, Regular.class),
+        Collections.<Annotation>emptySet(), moshi);
+    assertThat(adapter).isNull();
+
+    adapter = FallbackEnum.ADAPTER_FACTORY.create(
+        Types.newParameterizedType(List.class, Roshambo.class),
+        Collections.<Annotation>emptySet(), moshi);
+    assertThat(adapter).isNull();
+
+    adapter = FallbackEnum.ADAPTER_FACTORY.create(
+        Types.newParameterizedType(Map.class, String.class, Roshambo.class),
+        Collections.<Annotation>emptySet(), moshi);
+    assertThat(adapter).isNull();
+  }
+
+  @Test public void numericCodes() throws Exception {
+    JsonAdapter<Level> adapter = moshi.adapter(Level.class);
+    assertThat(adapter.fromJson("0")).isEqualTo(Level.LOW);
+    assertThat(adapter.fromJson("2")).isEqualTo(Level.HIGH);
+    assertThat(adapter.fromJson("1")).isEqualTo(Level.UNKNOWN);
+    assertThat(adapter.fromJson("7")).isEqualTo(Level.UNKNOWN);
+    assertThat(adapter.fromJson("-1")).isEqualTo(Level.UNKNOWN);
+    assertThat(adapter.fromJson("2.0")).isEqualTo(Level.HIGH);
+    assertThat(adapter.fromJson("1.5")).isEqualTo(Level.UNKNOWN);
+    assertThat(adapter.fromJson("1e12")).isEqualTo(Level.UNKNOWN);
+    assertThat(adapter.fromJson("-4294967296")).isEqualTo(Level.UNKNOWN);
+    assertThat(adapter.toJson(Level.HIGH)).isEqualTo("2");
+    assertThat(adapter.toJsonValue(Level.HIGH)).isEqualTo(2L);
+    assertThat(adapter.toString()).isEqualTo(
+        "JsonAdapter(com.serjltt.moshi.adapters.FallbackEnumJsonAdapterTest$Level)"
+            + ".fallbackEnum(UNKNOWN).codes().nullSafe()");
+
+    try {
+      adapter.fromJson("\"HIGH\"");
+      fail();
+    } catch (JsonDataException expected) {
+      assertThat(expected).hasMessage("Expected a double but was HIGH at path $");
+    }
+  }
+
+  @Test public void sparseNumericCodes() throws Exception {
+    JsonAdapter<HttpStatus> adapter = moshi.adapter(HttpStatus.class);
+    assertThat(adapter.fromJson("200")).isEqualTo(HttpStatus.OK);
+    assertThat(adapter.fromJson("404")).isEqualTo(HttpStatus.NOT_FOUND);
+    assertThat(adapter.fromJson("-100000")).isEqualTo(HttpStatus.NEGATIVE);
+    assertThat(adapter.fromJson("2147483647")).isEqualTo(HttpStatus.MAX);
+    assertThat(adapter.fromJson("500")).isEqualTo(HttpStatus.UNKNOWN);
+    assertThat(adapter.fromJson("0")).isEqualTo(HttpStatus.UNKNOWN);
+    assertThat(adapter.toJson(HttpStatus.NOT_FOUND)).isEqualTo("404");
+  }
+
+  @Test public void numericCodesInCollections() throws Exception {
+    JsonAdapter<Set<HttpStatus>> set =
+        moshi.adapter(Types.newParameterizedType(Set.class, HttpStatus.class));
+    assertThat(set.fromJson("[404, 200, 503]"))
+        .containsExactly(HttpStatus.OK, HttpStatus.NOT_FOUND, HttpStatus.UNKNOWN);
+    assertThat(set.toJson(EnumSet.of(HttpStatus.OK, HttpStatus.NOT_FOUND)))
+        .isEqualTo("[200,404]");
+
+    JsonAdapter<Map<Level, String>> map =
+        moshi.adapter(Types.newParameterizedType(Map.class, Level.class, String.class));
+    assertThat(map.fromJson("{\"2\": \"a\", \"x\": \"b\"}").toString())
+        .isEqualTo("{HIGH=a, UNKNOWN=b}");
+    assertThat(map.toJson(new EnumMap<>(Collections.singletonMap(Level.LOW, "c"))))
+        .isEqualTo("{\"0\":\"c\"}");
+  }
+
+  @Test public void reportsUnknownCodes() throws Exception {
+    final List<String> unknown = new ArrayList<>();
+    Moshi moshi = new Moshi.Builder()
+        .add(FallbackEnum.Factory.create(new FallbackEnum.UnknownValueListener() {
+          @Override public void onUnknownValue(Class<? extends Enum<?>> enumType, String value) {
+            unknown.add(value);
+          }
+        }))
+        .build();
+
+    assertThat(moshi.adapter(Level.class).fromJson("5")).isEqualTo(Level.UNKNOWN);
+    assertThat(moshi.adapter(HttpStatus.class).fromJson("418")).isEqualTo(HttpStatus.UNKNOWN);
+    assertThat(moshi.adapter(Level.class).fromJson("2.5")).isEqualTo(Level.UNKNOWN);
+    assertThat(moshi.adapter(Level.class).fromJson("1e12")).isEqualTo(Level.UNKNOWN);
+    assertThat(unknown).containsExactly("5", "418", "2.5", "1.0E12");
+  }
+
+  @Test public void throwsOnInvalidCodes() throws Exception {
+    try {
+      moshi.adapter(MissingCodes.class);
+      fail();
+    } catch (IllegalArgumentException expected) {
+      assertThat(expected).hasMessage("@FallbackEnum codes of "
+          + "com.serjltt.moshi.adapters.FallbackEnumJsonAdapterTest$MissingCodes must declare one"
+          + " code per constant: expected 2 but was 1.");
+    }
+    try {
+      moshi.adapter(DuplicateCodes.class);
+      fail();
+    } catch (IllegalArgumentException expected) {
+      assertThat(expected).hasMessage("Code 1000 of "
+          + "com.serjltt.moshi.adapters.FallbackEnumJsonAdapterTest$DuplicateCodes is declared by"
+          + " both ONE and UNKNOWN.");
+    }
+  }
+
+  @Test public void factoryRejectsNullListener() throws Exception {
+    try {
+      FallbackEnum.Factory.create(null);
+      fail();
+    } catch (NullPointerException expected) {
+      assertThat(expected).hasMessage("listener == null");
+    }
+  }
+
   @Test public void factoryIgnoresUnsupportedTypes() throws Exception {
     JsonAdapter<?> adapter1 = FallbackEnum.ADAPTER_FACTORY
         .create(String.class, Collections.<Annotation>emptySet(), moshi);
@@ -105,6 +417,110 @@ public final class FallbackEnumJsonAdapterTest {
     @SuppressWarnings("unused") UNKNOWN
   }
 
+  @FallbackEnum(name = "UNKNOWN") enum Status {
+    @FallbackEnum.Alias({ "enabled", "on" }) ACTIVE,
+    UNKNOWN
+  }
+
+  @FallbackEnum(name = "UNKNOWN", caseInsensitive = true) enum Mode {
+    @FallbackEnum.Alias("enabled") ACTIVE,
+    @Json(name = "in-active") INACTIVE,
+    UNKNOWN
+  }
+
+  @FallbackEnum(name = "UNKNOWN", caseInsensitive = true) enum Ambiguous {
+    ONE,
+    @FallbackEnum.Alias("one") UNKNOWN
+  }
+
+  @FallbackEnum(name = "UNKNOWN") enum DuplicateAlias {
+    ONE,
+    @FallbackEnum.Alias("ONE") UNKNOWN
+  }
+
+  @FallbackEnum(name = "UNKNOWN", caseInsensitive = true) enum Big {
+    VALUE_0_A, VALUE_0_B, VALUE_0_C, VALUE_0_D, VALUE_0_E, VALUE_0_F, VALUE_0_G, VALUE_0_H,
+    VALUE_1_A, VALUE_1_B, VALUE_1_C, VALUE_1_D, VALUE_1_E, VALUE_1_F, VALUE_1_G, VALUE_1_H,
+    VALUE_2_A, VALUE_2_B, VALUE_2_C, VALUE_2_D, VALUE_2_E, VALUE_2_F, VALUE_2_G, VALUE_2_H,
+    VALUE_3_A, VALUE_3_B, VALUE_3_C, VALUE_3_D, VALUE_3_E, VALUE_3_F, VALUE_3_G, VALUE_3_H,
+    VALUE_4_A, VALUE_4_B, VALUE_4_C, VALUE_4_D, VALUE_4_E, VALUE_4_F, VALUE_4_G, VALUE_4_H,
+    VALUE_5_A, VALUE_5_B, VALUE_5_C, VALUE_5_D, VALUE_5_E, VALUE_5_F, VALUE_5_G, VALUE_5_H,
+    VALUE_6_A, VALUE_6_B, VALUE_6_C, VALUE_6_D, VALUE_6_E, VALUE_6_F, VALUE_6_G, VALUE_6_H,
+    VALUE_7_A, VALUE_7_B, VALUE_7_C, VALUE_7_D, VALUE_7_E, VALUE_7_F, VALUE_7_G, VALUE_7_H,
+    VALUE_8_A, VALUE_8_B, VALUE_8_C, VALUE_8_D, VALUE_8_E, VALUE_8_F, VALUE_8_G, VALUE_8_H,
+    VALUE_9_A, VALUE_9_B, VALUE_9_C, VALUE_9_D, VALUE_9_E, VALUE_9_F, VALUE_9_G, VALUE_9_H,
+    VALUE_10_A, VALUE_10_B, VALUE_10_C, VALUE_10_D, VALUE_10_E, VALUE_10_F, VALUE_10_G, VALUE_10_H,
+    VALUE_11_A, VALUE_11_B, VALUE_11_C, VALUE_11_D, VALUE_11_E, VALUE_11_F, VALUE_11_G, VALUE_11_H,
+    VALUE_12_A, VALUE_12_B, VALUE_12_C, VALUE_12_D, VALUE_12_E, VALUE_12_F, VALUE_12_G, VALUE_12_H,
+    VALUE_13_A, VALUE_13_B, VALUE_13_C, VALUE_13_D, VALUE_13_E, VALUE_13_F, VALUE_13_G, VALUE_13_H,
+    VALUE_14_A, VALUE_14_B, VALUE_14_C, VALUE_14_D, VALUE_14_E, VALUE_14_F, VALUE_14_G, VALUE_14_H,
+    VALUE_15_A, VALUE_15_B, VALUE_15_C, VALUE_15_D, VALUE_15_E, VALUE_15_F, VALUE_15_G, VALUE_15_H,
+    VALUE_16_A, VALUE_16_B, VALUE_16_C, VALUE_16_D, VALUE_16_E, VALUE_16_F, VALUE_16_G, VALUE_16_H,
+    VALUE_17_A, VALUE_17_B, VALUE_17_C, VALUE_17_D, VALUE_17_E, VALUE_17_F, VALUE_17_G, VALUE_17_H,
+    VALUE_18_A, VALUE_18_B, VALUE_18_C, VALUE_18_D, VALUE_18_E, VALUE_18_F, VALUE_18_G, VALUE_18_H,
+    VALUE_19_A, VALUE_19_B, VALUE_19_C, VALUE_19_D, VALUE_19_E, VALUE_19_F, VALUE_19_G, VALUE_19_H,
+    VALUE_20_A, VALUE_20_B, VALUE_20_C, VALUE_20_D, VALUE_20_E, VALUE_20_F, VALUE_20_G, VALUE_20_H,
+    VALUE_21_A, VALUE_21_B, VALUE_21_C, VALUE_21_D, VALUE_21_E, VALUE_21_F, VALUE_21_G, VALUE_21_H,
+    VALUE_22_A, VALUE_22_B, VALUE_22_C, VALUE_22_D, VALUE_22_E, VALUE_22_F, VALUE_22_G, VALUE_22_H,
+    VALUE_23_A, VALUE_23_B, VALUE_23_C, VALUE_23_D, VALUE_23_E, VALUE_23_F, VALUE_23_G, VALUE_23_H,
+    VALUE_24_A, VALUE_24_B, VALUE_24_C, VALUE_24_D, VALUE_24_E, VALUE_24_F, VALUE_24_G, VALUE_24_H,
+    VALUE_25_A, VALUE_25_B, VALUE_25_C, VALUE_25_D, VALUE_25_E, VALUE_25_F, VALUE_25_G, VALUE_25_H,
+    VALUE_26_A, VALUE_26_B, VALUE_26_C, VALUE_26_D, VALUE_26_E, VALUE_26_F, VALUE_26_G, VALUE_26_H,
+    VALUE_27_A, VALUE_27_B, VALUE_27_C, VALUE_27_D, VALUE_27_E, VALUE_27_F, VALUE_27_G, VALUE_27_H,
+    VALUE_28_A, VALUE_28_B, VALUE_28_C, VALUE_28_D, VALUE_28_E, VALUE_28_F, VALUE_28_G, VALUE_28_H,
+    VALUE_29_A, VALUE_29_B, VALUE_29_C, VALUE_29_D, VALUE_29_E, VALUE_29_F, VALUE_29_G, VALUE_29_H,
+    VALUE_30_A, VALUE_30_B, VALUE_30_C, VALUE_30_D, VALUE_30_E, VALUE_30_F, VALUE_30_G, VALUE_30_H,
+    VALUE_31_A, VALUE_31_B, VALUE_31_C, VALUE_31_D, VALUE_31_E, VALUE_31_F, VALUE_31_G, VALUE_31_H,
+    VALUE_32_A, VALUE_32_B, VALUE_32_C, VALUE_32_D, VALUE_32_E, VALUE_32_F, VALUE_32_G, VALUE_32_H,
+    VALUE_33_A, VALUE_33_B, VALUE_33_C, VALUE_33_D, VALUE_33_E, VALUE_33_F, VALUE_33_G, VALUE_33_H,
+    VALUE_34_A, VALUE_34_B, VALUE_34_C, VALUE_34_D, VALUE_34_E, VALUE_34_F, VALUE_34_G, VALUE_34_H,
+    VALUE_35_A, VALUE_35_B, VALUE_35_C, VALUE_35_D, VALUE_35_E, VALUE_35_F, VALUE_35_G, VALUE_35_H,
+    VALUE_36_A, VALUE_36_B, VALUE_36_C, VALUE_36_D, VALUE_36_E, VALUE_36_F, VALUE_36_G, VALUE_36_H,
+    VALUE_37_A, VALUE_37_B, VALUE_37_C, VALUE_37_D, VALUE_37_E, VALUE_37_F, VALUE_37_G, VALUE_37_H,
+    VALUE_38_A, VALUE_38_B, VALUE_38_C, VALUE_38_D, VALUE_38_E, VALUE_38_F, VALUE_38_G, VALUE_38_H,
+    VALUE_39_A, VALUE_39_B, VALUE_39_C, VALUE_39_D, VALUE_39_E, VALUE_39_F, VALUE_39_G, VALUE_39_H,
+    ALPHA, BETA, GAMMA, DELTA, EPSILON, ZETA, ETA, THETA, IOTA, KAPPA, LAMBDA, MU,
+    UNKNOWN
+  }
+
+  @FallbackEnum(name = "UNKNOWN", caseInsensitive = true, dropUnknownInCollections = true)
+  enum Permission {
+    READ,
+    WRITE,
+    UNKNOWN
+  }
+
+  @FallbackEnum(name = "UNKNOWN") enum Escaped {
+    @Json(name = "a\"b") QUOTED,
+    @Json(name = "\u2028\u00e9") UNICODE,
+    UNKNOWN
+  }
+
+  @FallbackEnum(name = "UNKNOWN", codes = { 0, 2, 3 }) enum Level {
+    LOW,
+    HIGH,
+    UNKNOWN
+  }
+
+  @FallbackEnum(name = "UNKNOWN", codes = { 200, 404, -100000, Integer.MAX_VALUE, -1 })
+  enum HttpStatus {
+    OK,
+    NOT_FOUND,
+    NEGATIVE,
+    MAX,
+    UNKNOWN
+  }
+
+  @FallbackEnum(name = "UNKNOWN", codes = 1) enum MissingCodes {
+    ONE,
+    UNKNOWN
+  }
+
+  @FallbackEnum(name = "UNKNOWN", codes = { 1000, 1000 }) enum DuplicateCodes {
+    ONE,
+    UNKNOWN
+  }
+
   enum Regular {
     ONE
   }
@@ -17,23 +17,30 @@ package com.serjltt.moshi.adapters;
 
 import com.squareup.moshi.FromJson;
 import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonDataException;
 import com.squareup.moshi.JsonQualifier;
 import com.squareup.moshi.Moshi;
 import com.squareup.moshi.ToJson;
+import com.squareup.moshi.Types;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import org.junit.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
 
 public final class FallbackOnNullJsonAdapterTest {
   // Lazy adapters work only within the context of moshi.
@@ -191,6 +198,65 @@ public final class FallbackOnNullJsonAdapterTest {
     }
   }
 
+  @Test public void presentValuesAreRead() throws Exception {
+    JsonAdapter<AllPrimitives> adapter = moshi.adapter(AllPrimitives.class);
+    String json = "{\"b\":true,\"bt\":255,\"c\":\"c\",\"d\":1.5,\"f\":2.5,\"i\":3,"
+        + "\"l\":4,\"s\":-5}";
+
+    AllPrimitives fromJson = adapter.fromJson(json);
+    assertThat(fromJson.b).isTrue();
+    assertThat(fromJson.bt).isEqualTo((byte) -1);
+    assertThat(fromJson.c).isEqualTo('c');
+    assertThat(fromJson.d).isEqualTo(1.5);
+    assertThat(fromJson.f).isEqualTo(2.5f);
+    assertThat(fromJson.i).isEqualTo(3);
+    assertThat(fromJson.l).isEqualTo(4L);
+    assertThat(fromJson.s).isEqualTo((short) -5);
+
+    String toJson = adapter.toJson(fromJson);
+    assertThat(toJson).isEqualTo(json);
+  }
+
+  @Test public void presentValuesAreChecked() throws Exception {
+    JsonAdapter<AllPrimitives> adapter = moshi.adapter(AllPrimitives.class);
+
+    try {
+      adapter.fromJson("{\"bt\":256}");
+      fail();
+    } catch (JsonDataException e) {
+      assertThat(e).hasMessage("Expected a byte but was 256 at path $.bt");
+    }
+    try {
+      adapter.fromJson("{\"s\":32768}");
+      fail();
+    } catch (JsonDataException e) {
+      assertThat(e).hasMessage("Expected a short but was 32768 at path $.s");
+    }
+    try {
+      adapter.fromJson("{\"c\":\"cc\"}");
+      fail();
+    } catch (JsonDataException e) {
+      assertThat(e).hasMessage("Expected a char but was \"cc\" at path $.c");
+    }
+    try {
+      adapter.fromJson("{\"f\":1e39}");
+      fail();
+    } catch (JsonDataException e) {
+      assertThat(e).hasMessage("JSON forbids NaN and infinities: Infinity at path $.f");
+    }
+  }
+
+  private static class AllPrimitives {
+    @FallbackOnNull boolean b;
+    @FallbackOnNull byte bt;
+    @FallbackOnNull char c;
+    @FallbackOnNull double d;
+    @FallbackOnNull float f;
+    @FallbackOnNull int i;
+    @FallbackOnNull long l;
+    @FallbackOnNull short s;
+  }
+
   @Test public void factoryMaintainsOtherAnnotations() throws Exception {
     JsonAdapter<AnotherInt> adapter = moshi.adapter(AnotherInt.class);
 
@@ -211,27 +277,86 @@ public final class FallbackOnNullJsonAdapterTest {
     @FallbackOnNull(fallbackInt = 2) @Multiply int willMultiply;
   }
 
-  @Test public void factoryIgnoresNonPrimitiveTypes() {
-    List<Class<?>> classes = new ArrayList<Class<?>>() {
+  @Test public void factoryIgnoresUnsupportedTypes() {
+    List<Type> types = new ArrayList<Type>() {
       {
-        add(Boolean.class);
-        add(Byte.class);
-        add(Character.class);
-        add(Double.class);
-        add(Float.class);
-        add(Integer.class);
-        add(Long.class);
-        add(Short.class);
-        add(String.class);
         add(Object.class);
+        add(ArrayList.class);
+        add(int[].class);
+        add(Types.newParameterizedType(HashMap.class, String.class, String.class));
       }
     };
 
-    for (Class<?> cls : classes) {
-      assertThat(FallbackOnNull.ADAPTER_FACTORY.create(cls, ANNOTATIONS, moshi)).isNull();
+    for (Type type : types) {
+      assertThat(FallbackOnNull.ADAPTER_FACTORY.create(type, ANNOTATIONS, moshi)).isNull();
     }
   }
 
+  @Test public void boxedFallbacks() throws Exception {
+    JsonAdapter<Boxed> adapter = moshi.adapter(Boxed.class);
+
+    Boxed fromJson = adapter.fromJson("{\"b\":null,\"i\":null,\"l\":7,\"c\":null}");
+    assertThat(fromJson.b).isTrue();
+    assertThat(fromJson.i).isEqualTo(-1);
+    assertThat(fromJson.l).isEqualTo(7L);
+    assertThat(fromJson.c).isEqualTo('x');
+
+    String toJson = adapter.toJson(fromJson);
+    assertThat(toJson).isEqualTo("{\"b\":true,\"c\":\"x\",\"i\":-1,\"l\":7}");
+  }
+
+  private static class Boxed {
+    @FallbackOnNull(fallbackBoolean = true) Boolean b;
+    @FallbackOnNull(fallbackInt = -1) Integer i;
+    @FallbackOnNull Long l;
+    @FallbackOnNull(fallbackChar = 'x') Character c;
+  }
+
+  @Test public void stringFallbacks() throws Exception {
+    JsonAdapter<Strings> adapter = moshi.adapter(Strings.class);
+
+    Strings fromJson = adapter.fromJson("{\"first\":null,\"second\":null}");
+    assertThat(fromJson.first).isEmpty();
+    assertThat(fromJson.second).isEqualTo("unknown");
+
+    fromJson = adapter.fromJson("{\"first\":\"a\",\"second\":\"b\"}");
+    assertThat(fromJson.first).isEqualTo("a");
+    assertThat(fromJson.second).isEqualTo("b");
+  }
+
+  private static class Strings {
+    @FallbackOnNull String first;
+    @FallbackOnNull(fallbackString = "unknown") String second;
+  }
+
+  @Test public void collectionFallbacksAreShared() throws Exception {
+    JsonAdapter<Collections1> adapter = moshi.adapter(Collections1.class);
+
+    Collections1 first = adapter.fromJson("{\"list\":null,\"collection\":null,\"set\":null,"
+        + "\"map\":null}");
+    Collections1 second = adapter.fromJson("{\"list\":null,\"collection\":null,\"set\":null,"
+        + "\"map\":null}");
+    assertThat(first.list).isEmpty();
+    assertThat(first.list).isSameAs(second.list).isSameAs(Collections.emptyList());
+    assertThat(first.collection).isSameAs(Collections.emptyList());
+    assertThat(first.set).isSameAs(Collections.emptySet());
+    assertThat(first.map).isSameAs(Collections.emptyMap());
+
+    Collections1 fromJson = adapter.fromJson("{\"list\":[\"a\"],\"map\":{\"b\":1}}");
+    assertThat(fromJson.list).containsExactly("a");
+    assertThat(fromJson.map).containsEntry("b", 1);
+
+    String toJson = adapter.toJson(first);
+    assertThat(toJson).isEqualTo("{\"collection\":[],\"list\":[],\"map\":{},\"set\":[]}");
+  }
+
+  private static class Collections1 {
+    @FallbackOnNull List<String> list;
+    @FallbackOnNull Collection<String> collection;
+    @FallbackOnNull Set<String> set;
+    @FallbackOnNull Map<String, Integer> map;
+  }
+
   @Test public void fallbackOnNullIsDelegated() throws Exception {
     JsonAdapter<AndAnotherInt> adapter = moshi.adapter(AndAnotherInt.class);
 
@@ -251,6 +376,35 @@ public final class FallbackOnNullJsonAdapterTest {
   @Target({ ElementType.FIELD, ElementType.METHOD, ElementType.PARAMETER })
   @interface AlwaysFallBackToTwoOnNull { }
 
+  @Test public void identicalUsagesShareAnAdapter() throws Exception {
+    Moshi otherMoshi = new Moshi.Builder()
+        .add(FallbackOnNull.ADAPTER_FACTORY)
+        .build();
+
+    assertThat(otherMoshi.adapter(int.class, ANNOTATIONS))
+        .isSameAs(moshi.adapter(int.class, ANNOTATIONS));
+  }
+
+  @Test public void customPrimitiveAdaptersAreRespected() throws Exception {
+    Moshi otherMoshi = new Moshi.Builder()
+        .add(FallbackOnNull.ADAPTER_FACTORY)
+        .add(new Object() {
+          @FromJson int fromJson(String value) {
+            return Integer.parseInt(value, 16);
+          }
+
+          @ToJson String toJson(int value) {
+            return Integer.toHexString(value);
+          }
+        })
+        .build();
+    JsonAdapter<Integer> adapter = otherMoshi.adapter(int.class, ANNOTATIONS);
+
+    assertThat(adapter.fromJson("\"ff\"")).isEqualTo(255);
+    assertThat(adapter.fromJson("null")).isEqualTo(-1);
+    assertThat(adapter.toJson(255)).isEqualTo("\"ff\"");
+  }
+
   @Test public void toStringReflectsInnerAdapter() throws Exception {
     JsonAdapter<Integer> adapter = moshi.adapter(int.class, ANNOTATIONS);
 
@@ -296,6 +450,10 @@ public final class FallbackOnNullJsonAdapterTest {
         @Override public short fallbackShort() {
           return 0;
         }
+
+        @Override public String fallbackString() {
+          return null;
+        }
       });
 
   private <T extends Wrapper<P>, P> void assertForClass(Class<T> cls, P first, P second,
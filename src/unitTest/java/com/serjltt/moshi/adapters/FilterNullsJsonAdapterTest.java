@@ -1,15 +1,22 @@
 package com.serjltt.moshi.adapters;
 
 import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonDataException;
 import com.squareup.moshi.Moshi;
 import com.squareup.moshi.Types;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.junit.Test;
 
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.junit.Assert.fail;
 
 public final class FilterNullsJsonAdapterTest {
   // Lazy adapters work only within the context of moshi.
@@ -40,6 +47,93 @@ public final class FilterNullsJsonAdapterTest {
     assertThat(toJson).isEqualTo("[\"apple\",\"banana\"]");
   }
 
+  @Test public void nullValuesInSet() throws Exception {
+    JsonAdapter<Set<String>> adapter = moshi.adapter(Types.newParameterizedType(Set.class,
+        String.class), FilterNulls.class);
+
+    Set<String> fromJson = adapter.fromJson("[null,\"apple\",null,\"banana\",\"apple\",null]");
+    assertThat(fromJson).isInstanceOf(LinkedHashSet.class).containsExactly("apple", "banana");
+
+    String toJson = adapter.toJson(fromJson);
+    assertThat(toJson).isEqualTo("[\"apple\",\"banana\"]");
+  }
+
+  @Test public void onlyNullValues() throws Exception {
+    JsonAdapter<List<String>> adapter = moshi.adapter(Types.newParameterizedType(List.class,
+        String.class), FilterNulls.class);
+
+    List<String> fromJson = adapter.fromJson("[null,null,null]");
+    assertThat(fromJson).isInstanceOf(ArrayList.class).isEmpty();
+  }
+
+  @Test public void toJsonDoesNotModifyTheCollection() throws Exception {
+    JsonAdapter<List<String>> adapter = moshi.adapter(Types.newParameterizedType(List.class,
+        String.class), FilterNulls.class);
+
+    List<String> value = Collections.unmodifiableList(asList(null, "apple", null, "banana"));
+    String toJson = adapter.toJson(value);
+    assertThat(toJson).isEqualTo("[\"apple\",\"banana\"]");
+    assertThat(value).containsExactly(null, "apple", null, "banana");
+  }
+
+  @Test public void nullMapValues() throws Exception {
+    JsonAdapter<Map<String, Integer>> adapter = moshi.adapter(Types.newParameterizedType(
+        Map.class, String.class, Integer.class), FilterNulls.class);
+
+    Map<String, Integer> fromJson = adapter.fromJson("{\"a\":1,\"b\":null,\"c\":3}");
+    assertThat(fromJson).containsOnlyKeys("a", "c").containsEntry("a", 1).containsEntry("c", 3);
+
+    Map<String, Integer> value = new LinkedHashMap<>();
+    value.put("a", null);
+    value.put("b", 2);
+    String toJson = adapter.toJson(value);
+    assertThat(toJson).isEqualTo("{\"b\":2}");
+    assertThat(value).hasSize(2);
+  }
+
+  @Test public void nullMapValuesWithNonStringKeys() throws Exception {
+    JsonAdapter<Map<Integer, String>> adapter = moshi.adapter(Types.newParameterizedType(
+        Map.class, Integer.class, String.class), FilterNulls.class);
+
+    Map<Integer, String> fromJson = adapter.fromJson("{\"1\":\"one\",\"2\":null}");
+    assertThat(fromJson).containsOnlyKeys(1).containsEntry(1, "one");
+
+    String toJson = adapter.toJson(fromJson);
+    assertThat(toJson).isEqualTo("{\"1\":\"one\"}");
+  }
+
+  @Test public void duplicateMapKeysFail() throws Exception {
+    JsonAdapter<Map<String, Integer>> adapter = moshi.adapter(Types.newParameterizedType(
+        Map.class, String.class, Integer.class), FilterNulls.class);
+
+    try {
+      adapter.fromJson("{\"a\":1,\"a\":2}");
+      fail();
+    } catch (JsonDataException e) {
+      assertThat(e).hasMessage("Map key 'a' has multiple values at path $.a: 1 and 2");
+    }
+  }
+
+  @Test public void nullArrayElements() throws Exception {
+    JsonAdapter<String[]> adapter = moshi.adapter(String[].class, FilterNulls.class);
+
+    String[] fromJson = adapter.fromJson("[null,\"apple\",null,\"banana\"]");
+    assertThat(fromJson).containsExactly("apple", "banana");
+
+    String toJson = adapter.toJson(new String[] {"apple", null, "banana"});
+    assertThat(toJson).isEqualTo("[\"apple\",\"banana\"]");
+  }
+
+  @Test public void nullBoxedArrayElements() throws Exception {
+    JsonAdapter<Integer[]> adapter = moshi.adapter(Integer[].class, FilterNulls.class);
+
+    Integer[] fromJson = adapter.fromJson("[1,null,2]");
+    assertThat(fromJson).containsExactly(1, 2);
+
+    assertThat(adapter.fromJson("null")).isNull();
+    assertThat(adapter.toJson(null)).isEqualTo("null");
+  }
+
   @Test public void nullList() throws Exception {
     JsonAdapter<List<String>> adapter = moshi.adapter(Types.newParameterizedType(List.class,
         String.class), FilterNulls.class);
@@ -57,5 +151,11 @@ public final class FilterNullsJsonAdapterTest {
 
     assertThat(adapter.toString())
         .isEqualTo("JsonAdapter(String).nullSafe().collection().nullSafe().filterNulls()");
+
+    JsonAdapter<Map<String, String>> mapAdapter = moshi.adapter(Types.newParameterizedType(
+        Map.class, String.class, String.class), FilterNulls.class);
+    assertThat(mapAdapter.toString())
+        .isEqualTo("JsonAdapter(JsonAdapter(String).nullSafe()=JsonAdapter(String).nullSafe())"
+            + ".nullSafe().filterNulls()");
   }
 }
@@ -53,6 +53,13 @@ public final class FirstElementJsonAdapterTest {
     assertThat(toJson).isEqualTo("{\"obj\":[\"one\"]}");
   }
 
+  @Test public void failOnUnknownReader() throws Exception {
+    JsonAdapter<Data> adapter = moshi.adapter(Data.class).failOnUnknown();
+
+    Data fromJson = adapter.fromJson("{\"obj\": [\"one\", \"two\"]}");
+    assertThat(fromJson.str).isEqualTo("one");
+  }
+
   @Test public void fromJsonOnEmptyArrayReturnsNull() throws Exception {
     assertNullReturn("{\n"
         + "  \"obj\": []\n"
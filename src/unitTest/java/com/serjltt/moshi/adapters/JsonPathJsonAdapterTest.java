@@ -0,0 +1,232 @@
+/*
+ * Copyright 2016 Serj Lotutovici
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.serjltt.moshi.adapters;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonDataException;
+import com.squareup.moshi.Moshi;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public final class JsonPathJsonAdapterTest {
+  // Lazy adapters work only within the context of moshi.
+  private final Moshi moshi = new Moshi.Builder()
+      .add(JsonPath.ADAPTER_FACTORY)
+      .add(new Custom.CustomAdapter()) // We need to check that other annotations are not lost.
+      .build();
+
+  private static final String ITEMS = "{\n"
+      + "  \"meta\": {\"count\": 4},\n"
+      + "  \"data\": {\n"
+      + "    \"items\": [\n"
+      + "      {\"name\": \"a\", \"price\": 1},\n"
+      + "      {\"name\": \"b\", \"price\": 2},\n"
+      + "      {\"name\": \"c\", \"price\": 3},\n"
+      + "      {\"name\": \"d\", \"price\": 4}\n"
+      + "    ]\n"
+      + "  }\n"
+      + "}";
+
+  @Test public void childAndIndex() throws Exception {
+    JsonAdapter<Data1> adapter = moshi.adapter(Data1.class);
+
+    Data1 fromJson = adapter.fromJson("{\"value\": " + ITEMS + "}");
+    assertThat(fromJson.value).isEqualTo(1);
+
+    String toJson = adapter.toJson(fromJson);
+    assertThat(toJson).isEqualTo("{\"value\":{\"data\":{\"items\":[{\"price\":1}]}}}");
+  }
+
+  @Test public void bracketNamesAndNegativeIndex() throws Exception {
+    JsonAdapter<Data2> adapter = moshi.adapter(Data2.class);
+
+    Data2 fromJson = adapter.fromJson("{\"value\": " + ITEMS + "}");
+    assertThat(fromJson.value).isEqualTo("cCustom");
+  }
+
+  @Test public void wildcard() throws Exception {
+    JsonAdapter<Data3> adapter = moshi.adapter(Data3.class);
+
+    Data3 fromJson = adapter.fromJson("{\"value\": " + ITEMS + "}");
+    assertThat(fromJson.value).containsExactly(1, 2, 3, 4);
+
+    fromJson.value = Arrays.asList(1, 2);
+    String toJson = adapter.toJson(fromJson);
+    assertThat(toJson)
+        .isEqualTo("{\"value\":{\"data\":{\"items\":[{\"price\":1},{\"price\":2}]}}}");
+  }
+
+  @Test public void objectWildcard() throws Exception {
+    JsonAdapter<Data4> adapter = moshi.adapter(Data4.class);
+
+    Data4 fromJson = adapter.fromJson("{\"value\": {\"a\": {\"x\": 1, \"y\": 2}, \"b\": {}, "
+        + "\"c\": {\"z\": 3}}}");
+    assertThat(fromJson.value).containsExactly(1, 2, 3);
+
+    String toJson = adapter.toJson(fromJson);
+    assertThat(toJson).isEqualTo("{\"value\":[[1],[2],[3]]}");
+    assertThat(adapter.fromJson(toJson).value).containsExactly(1, 2, 3);
+  }
+
+  @Test public void slices() throws Exception {
+    JsonAdapter<Data5> adapter = moshi.adapter(Data5.class);
+
+    Data5 fromJson = adapter.fromJson("{\n"
+        + "  \"tail\": " + ITEMS + ",\n"
+        + "  \"even\": " + ITEMS + ",\n"
+        + "  \"head\": " + ITEMS + ",\n"
+        + "  \"none\": " + ITEMS + ",\n"
+        + "  \"empty\": " + ITEMS + "\n"
+        + "}");
+    assertThat(fromJson.tail).containsExactly("b", "c", "d");
+    assertThat(fromJson.even).containsExactly("a", "c");
+    assertThat(fromJson.head).containsExactly("a", "b");
+    assertThat(fromJson.none).isEmpty();
+    assertThat(fromJson.empty).isEmpty();
+  }
+
+  @Test public void nestedMultiValuedPathsAreFlattened() throws Exception {
+    JsonAdapter<Data6> adapter = moshi.adapter(Data6.class);
+
+    Data6 fromJson = adapter.fromJson("{\"value\": [[1, 2], [], [3, 4]]}");
+    assertThat(fromJson.value).containsExactly(1, 3);
+
+    // Each value is written as the only element of the inner array.
+    String toJson = adapter.toJson(fromJson);
+    assertThat(toJson).isEqualTo("{\"value\":[[1],[3]]}");
+    assertThat(adapter.fromJson(toJson).value).containsExactly(1, 3);
+  }
+
+  @Test public void restOfTheJsonIsConsumed() throws Exception {
+    JsonAdapter<Data1> adapter = moshi.adapter(Data1.class);
+
+    Data1 fromJson = adapter.fromJson("{\"value\": " + ITEMS + ", \"other\": 1}");
+    assertThat(fromJson.value).isEqualTo(1);
+  }
+
+  @Test public void missingKeyFails() throws Exception {
+    JsonAdapter<Data1> adapter = moshi.adapter(Data1.class);
+
+    try {
+      adapter.fromJson("{\"value\": {\"data\": {\"entries\": []}}}");
+      fail();
+    } catch (JsonDataException e) {
+      assertThat(e).hasMessage(
+          "Json expected at path: $.data.items[0].price. Actual: $.value.data");
+    }
+  }
+
+  @Test public void nullOnPathFails() throws Exception {
+    JsonAdapter<Data1> adapter = moshi.adapter(Data1.class);
+
+    try {
+      adapter.fromJson("{\"value\": {\"data\": null}}");
+      fail();
+    } catch (JsonDataException e) {
+      assertThat(e).hasMessage(
+          "Json expected at path: $.data.items[0].price. Found null at $.value.data");
+    }
+  }
+
+  @Test public void nullOnPathIsNull() throws Exception {
+    JsonAdapter<Data7> adapter = moshi.adapter(Data7.class);
+
+    Data7 fromJson = adapter.fromJson("{\"value\": {\"data\": null}}");
+    assertThat(fromJson.value).isNull();
+  }
+
+  @Test public void multiValuedPathRequiresList() throws Exception {
+    try {
+      moshi.adapter(Data8.class);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasMessage("Json path $[*] of class java.lang.Integer "
+          + "selects multiple values and must be declared as a List or Collection.");
+    }
+  }
+
+  @Test public void invalidExpressions() throws Exception {
+    assertInvalid("data.items", "Invalid json path data.items at index 0: must start with '$'");
+    assertInvalid("$..items", "Invalid json path $..items at index 2: expected a name");
+    assertInvalid("$.items[0", "Invalid json path $.items[0 at index 7: expected ']'");
+    assertInvalid("$.items[a]", "Invalid json path $.items[a] at index 8: expected a number");
+    assertInvalid("$.items[-0]", "Invalid json path $.items[-0] at index 8: expected a number");
+    assertInvalid("$.items[99999999999]",
+        "Invalid json path $.items[99999999999] at index 8: expected a number");
+    assertInvalid("$['items]", "Invalid json path $['items] at index 1: unterminated name");
+    assertInvalid("$items", "Invalid json path $items at index 1: unexpected 'i'");
+    assertInvalid("$.items[-2:]", "Slice [-2:] must have a positive step "
+        + "and must not count from the end of the array.");
+  }
+
+  @Test public void toStringReflectsInnerAdapter() throws Exception {
+    JsonAdapter<Integer> adapter = moshi.adapter(Integer.class, Collections.singleton(
+        Data1.class.getDeclaredField("value").getAnnotation(JsonPath.class)));
+    assertThat(adapter.toString())
+        .isEqualTo("JsonAdapter(Integer).nullSafe().jsonPath($.data.items[0].price)"
+            + ".failOnNotFound()");
+  }
+
+  private static void assertInvalid(String expression, String message) {
+    try {
+      JsonPathPlan.compileExpression(expression);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasMessage(message);
+    }
+  }
+
+  private static class Data1 {
+    @JsonPath("$.data.items[0].price") Integer value;
+  }
+
+  private static class Data2 {
+    @JsonPath("$['data'][\"items\"][-2].name") @Custom String value;
+  }
+
+  private static class Data3 {
+    @JsonPath("$.data.items[*].price") List<Integer> value;
+  }
+
+  private static class Data4 {
+    @JsonPath("$.*.*") List<Integer> value;
+  }
+
+  private static class Data5 {
+    @JsonPath("$.data.items[1:].name") List<String> tail;
+    @JsonPath("$.data.items[0:3:2].name") List<String> even;
+    @JsonPath("$.data.items[:2].name") List<String> head;
+    @JsonPath("$.data.items[5:].name") List<String> none;
+    @JsonPath("$.data.items[2:2].name") List<String> empty;
+  }
+
+  private static class Data6 {
+    @JsonPath("$[*][:1]") List<Integer> value;
+  }
+
+  private static class Data7 {
+    @JsonPath(value = "$.data.items[0].price", failOnNotFound = false) Integer value;
+  }
+
+  private static class Data8 {
+    @JsonPath("$[*]") Integer value;
+  }
+}
@@ -39,6 +39,20 @@ public final class LastElementJsonAdapterTest {
     assertThat(toJson).isEqualTo("{\"obj\":[\"two\"]}");
   }
 
+  @Test public void onlyTheLastElementIsDecoded() throws Exception {
+    JsonAdapter<LastElementJsonAdapterTest.Data> adapter = moshi.adapter(Data.class);
+
+    // Neither the object, nor the boolean can be decoded as a String.
+    LastElementJsonAdapterTest.Data fromJson = adapter.fromJson("{\n"
+        + "  \"obj\": [\n"
+        + "    {\"one\": [1, \"\\\"2\\\"\"]},\n"
+        + "    true,\n"
+        + "    \"th\\u0072ee\"\n"
+        + "  ]\n"
+        + "}");
+    assertThat(fromJson.str).isEqualTo("three");
+  }
+
   @Test public void fromJsonOnEmptyArrayReturnsNull() throws Exception {
     assertNullReturn("{\n"
         + "  \"obj\": []\n"
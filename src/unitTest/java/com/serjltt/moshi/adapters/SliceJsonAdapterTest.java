@@ -0,0 +1,157 @@
+/*
+ * Copyright 2016 Serj Lotutovici
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.serjltt.moshi.adapters;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonDataException;
+import com.squareup.moshi.Moshi;
+import com.squareup.moshi.Types;
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public final class SliceJsonAdapterTest {
+  // Lazy adapters work only within the context of moshi.
+  private final Moshi moshi = new Moshi.Builder()
+      .add(Slice.ADAPTER_FACTORY)
+      .build();
+
+  private static final String NUMBERS = "[0, 1, 2, 3, 4, 5, 6, 7, 8, 9]";
+
+  @Test public void windows() throws Exception {
+    JsonAdapter<Data> adapter = moshi.adapter(Data.class);
+
+    Data fromJson = adapter.fromJson("{\n"
+        + "  \"head\": " + NUMBERS + ",\n"
+        + "  \"tail\": " + NUMBERS + ",\n"
+        + "  \"every\": " + NUMBERS + ",\n"
+        + "  \"window\": " + NUMBERS + ",\n"
+        + "  \"none\": " + NUMBERS + ",\n"
+        + "  \"empty\": []\n"
+        + "}");
+    assertThat(fromJson.head).containsExactly(0, 1, 2);
+    assertThat(fromJson.tail).containsExactly(8, 9);
+    assertThat(fromJson.every).containsExactly(0, 3, 6, 9);
+    assertThat(fromJson.window).containsExactly(2, 4, 6);
+    assertThat(fromJson.none).isEmpty();
+    assertThat(fromJson.empty).isEmpty();
+
+    String toJson = adapter.toJson(fromJson);
+    assertThat(toJson).isEqualTo("{\"empty\":[],\"every\":[0,3,6,9],\"head\":[0,1,2],"
+        + "\"none\":[],\"tail\":[8,9],\"window\":[2,4,6]}");
+  }
+
+  @Test public void onlyTheWindowIsDecoded() throws Exception {
+    JsonAdapter<Data> adapter = moshi.adapter(Data.class);
+
+    // Neither the strings, nor the objects can be decoded as an Integer.
+    Data fromJson = adapter.fromJson("{\n"
+        + "  \"window\": [\"0\", {\"1\": 1}, 2, \"3\", 4, [5], 6, {}, null]\n"
+        + "}");
+    assertThat(fromJson.window).containsExactly(2, 4, 6);
+  }
+
+  @Test public void failOnUnknownReaderDecodesTheOtherElements() throws Exception {
+    JsonAdapter<Data> adapter = moshi.adapter(Data.class).failOnUnknown();
+
+    Data fromJson = adapter.fromJson("{\"window\": " + NUMBERS + ", \"tail\": " + NUMBERS + "}");
+    assertThat(fromJson.window).containsExactly(2, 4, 6);
+    assertThat(fromJson.tail).containsExactly(8, 9);
+  }
+
+  @Test public void nullArrayIsNull() throws Exception {
+    JsonAdapter<Data> adapter = moshi.adapter(Data.class);
+
+    Data fromJson = adapter.fromJson("{\"head\": null}");
+    assertThat(fromJson.head).isNull();
+  }
+
+  @Test public void fromJsonExpectsAnArray() throws Exception {
+    JsonAdapter<Data> adapter = moshi.adapter(Data.class);
+
+    try {
+      adapter.fromJson("{\"head\": \"this_will_throw\"}");
+      fail();
+    } catch (JsonDataException e) {
+      assertThat(e).hasMessage("Expected BEGIN_ARRAY but was STRING at path $.head");
+    }
+  }
+
+  @Test public void sliceRequiresList() throws Exception {
+    try {
+      moshi.adapter(Integer.class, Collections.singleton(slice(0, 1, 1)));
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasMessage("@Slice class java.lang.Integer must be declared as a List or "
+          + "Collection.");
+    }
+  }
+
+  @Test public void sliceRequiresValidWindow() throws Exception {
+    try {
+      moshi.adapter(Types.newParameterizedType(List.class, Integer.class),
+          Collections.singleton(slice(2, 1, 1)));
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasMessage("@Slice(from = 2, to = 1, step = 1) is not a valid window.");
+    }
+  }
+
+  @Test public void toStringReflectsInnerAdapter() throws Exception {
+    JsonAdapter<Collection<String>> adapter = moshi.adapter(
+        Types.newParameterizedType(Collection.class, String.class),
+        Collections.singleton(slice(1, 20, 2)));
+
+    assertThat(adapter.toString())
+        .isEqualTo("JsonAdapter(String).nullSafe().collection().nullSafe().slice(1, 20, 2)");
+    assertThat(adapter.toJson(Arrays.asList("a", "b"))).isEqualTo("[\"a\",\"b\"]");
+  }
+
+  private static Slice slice(final int from, final int to, final int step) {
+    return new Slice() {
+      @Override public Class<? extends Annotation> annotationType() {
+        return Slice.class;
+      }
+
+      @Override public int from() {
+        return from;
+      }
+
+      @Override public int to() {
+        return to;
+      }
+
+      @Override public int step() {
+        return step;
+      }
+    };
+  }
+
+  private static class Data {
+    @Slice(to = 3) List<Integer> head;
+    @Slice(from = 8) List<Integer> tail;
+    @Slice(step = 3) List<Integer> every;
+    @Slice(from = 2, to = 7, step = 2) List<Integer> window;
+    @Slice(from = 4, to = 4) List<Integer> none;
+    @Slice(from = 1) Collection<Integer> empty;
+  }
+}
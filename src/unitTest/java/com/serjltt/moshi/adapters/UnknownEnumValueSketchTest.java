@@ -0,0 +1,121 @@
+/*
+ * Copyright 2016 Serj Lotutovici
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.serjltt.moshi.adapters;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import java.util.concurrent.CountDownLatch;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public final class UnknownEnumValueSketchTest {
+  @Test public void countsUnknownValues() throws Exception {
+    UnknownEnumValueSketch sketch = new UnknownEnumValueSketch(4);
+    Moshi moshi = new Moshi.Builder()
+        .add(FallbackEnum.Factory.create(sketch))
+        .build();
+    JsonAdapter<Roshambo> adapter = moshi.adapter(Roshambo.class);
+
+    assertThat(adapter.fromJson("\"ROCK\"")).isEqualTo(Roshambo.ROCK);
+    for (String value : new String[] { "LIZARD", "SPOCK", "SPOCK", "WELL" }) {
+      assertThat(adapter.fromJson("\"" + value + "\"")).isEqualTo(Roshambo.UNKNOWN);
+    }
+
+    assertThat(sketch.enumTypes()).containsExactly(Roshambo.class);
+    assertThat(sketch.topValues(Roshambo.class).toString())
+        .isEqualTo("[SPOCK=2, LIZARD=1, WELL=1]");
+    assertThat(sketch.topValues(Other.class)).isEmpty();
+
+    sketch.clear();
+    assertThat(sketch.enumTypes()).isEmpty();
+  }
+
+  @Test public void replacesLeastFrequentValue() throws Exception {
+    UnknownEnumValueSketch sketch = new UnknownEnumValueSketch(2);
+    for (String value : new String[] { "a", "a", "a", "b", "c", "c" }) {
+      sketch.onUnknownValue(Roshambo.class, value);
+    }
+
+    // "c" took over the slot of "b" and with it its count.
+    assertThat(sketch.topValues(Roshambo.class).toString())
+        .isEqualTo("[a=3, c=3 (max error 1)]");
+    UnknownEnumValueSketch.Entry entry = sketch.topValues(Roshambo.class).get(1);
+    assertThat(entry.value()).isEqualTo("c");
+    assertThat(entry.count()).isEqualTo(3);
+    assertThat(entry.maxError()).isEqualTo(1);
+  }
+
+  @Test public void tracksEnumTypesSeparately() throws Exception {
+    UnknownEnumValueSketch sketch = new UnknownEnumValueSketch(1);
+    sketch.onUnknownValue(Roshambo.class, "a");
+    sketch.onUnknownValue(Other.class, "b");
+
+    assertThat(sketch.topValues(Roshambo.class).toString()).isEqualTo("[a=1]");
+    assertThat(sketch.topValues(Other.class).toString()).isEqualTo("[b=1]");
+  }
+
+  @Test public void concurrentRecording() throws Exception {
+    final UnknownEnumValueSketch sketch = new UnknownEnumValueSketch(8);
+    final CountDownLatch start = new CountDownLatch(1);
+    Thread[] threads = new Thread[4];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread(new Runnable() {
+        @Override public void run() {
+          try {
+            start.await();
+          } catch (InterruptedException e) {
+            throw new AssertionError(e);
+          }
+          for (int j = 0; j < 1000; j++) {
+            sketch.onUnknownValue(Roshambo.class, "v" + (j % 4));
+          }
+        }
+      });
+      threads[i].start();
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    long total = 0;
+    for (UnknownEnumValueSketch.Entry entry : sketch.topValues(Roshambo.class)) {
+      total += entry.count();
+    }
+    assertThat(total).isEqualTo(4000);
+    assertThat(sketch.topValues(Roshambo.class)).hasSize(4);
+  }
+
+  @Test public void rejectsInvalidCapacity() throws Exception {
+    try {
+      new UnknownEnumValueSketch(0);
+      fail();
+    } catch (IllegalArgumentException expected) {
+      assertThat(expected).hasMessage("capacity must be positive: 0");
+    }
+  }
+
+  @FallbackEnum(name = "UNKNOWN") enum Roshambo {
+    ROCK,
+    UNKNOWN
+  }
+
+  enum Other {
+    @SuppressWarnings("unused") ONE
+  }
+}
@@ -21,6 +21,7 @@ import com.squareup.moshi.JsonAdapter;
 import com.squareup.moshi.JsonDataException;
 import com.squareup.moshi.JsonEncodingException;
 import com.squareup.moshi.JsonQualifier;
+import com.squareup.moshi.JsonReader;
 import com.squareup.moshi.Moshi;
 import com.squareup.moshi.ToJson;
 import com.squareup.moshi.Types;
@@ -30,7 +31,10 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import okio.Buffer;
 import org.junit.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -204,6 +208,40 @@ public final class WrappedJsonAdapterTest {
     assertThat(fromJson.data.val).isEqualTo(11);
   }
 
+  @Test public void fromJsonSkipsNonPathObjects() throws Exception {
+    JsonAdapter<Data2> adapter = moshi.adapter(Data2.class);
+
+    Data2 fromJson = adapter.fromJson("{\n"
+        + "  \"data\": {\n"
+        + "    \"meta\": {\"1\": {\"2\": \"not this one\"}},\n"
+        + "    \"paging\": [1, 2, {\"1\": null}],\n"
+        + "    \"\\u0031\": {\n"
+        + "      \"2\": {\n"
+        + "        \"str\": \"escaped\",\n"
+        + "        \"val\": 7\n"
+        + "      }\n"
+        + "    }\n"
+        + "  }\n"
+        + "}");
+
+    assertThat(fromJson.data.str).isEqualTo("escaped");
+    assertThat(fromJson.data.val).isEqualTo(7);
+  }
+
+  @Test public void fromJsonValueSkipsNonPathValues() throws Exception {
+    JsonAdapter<String> adapter = moshi.adapter(String.class,
+        Collections.singleton(Wrapped.Factory.create("1", "2")));
+
+    Map<String, Object> inner = new LinkedHashMap<>();
+    inner.put("skipped", Collections.singletonList("value"));
+    inner.put("2", "found");
+    Map<String, Object> outer = new LinkedHashMap<>();
+    outer.put("0", null);
+    outer.put("1", inner);
+
+    assertThat(adapter.fromJsonValue(outer)).isEqualTo("found");
+  }
+
   @Test public void fromJsonOnIncorrectPath() throws Exception {
     JsonAdapter<Data2> adapter = moshi.adapter(Data2.class);
 
@@ -221,6 +259,178 @@ public final class WrappedJsonAdapterTest {
     }
   }
 
+  @Test public void stacklessFailures() throws Exception {
+    JsonAdapter<String> adapter = moshi.adapter(String.class,
+        Collections.singleton(Wrapped.Factory.create(true, false, true, "1", "2")));
+
+    JsonDataException notFound = null;
+    for (int i = 0; i < 2; i++) {
+      try {
+        adapter.fromJson("{\"1\": {\"3\": \"test\"}}");
+        fail();
+      } catch (JsonDataException e) {
+        assertThat(e).hasMessage("Wrapped Json expected at path: [1, 2]. Not found");
+        assertThat(e.getStackTrace()).isEmpty();
+        // Failures are not shared, as their catchers may alter them.
+        assertThat(e).isNotSameAs(notFound);
+        e.addSuppressed(new IllegalStateException());
+        notFound = e;
+      }
+    }
+
+    try {
+      adapter.fromJson("{\"1\": null}");
+      fail();
+    } catch (JsonDataException e) {
+      assertThat(e).hasMessage("Wrapped Json expected at path: [1, 2]. Found null");
+      assertThat(e.getStackTrace()).isEmpty();
+    }
+
+    assertThat(adapter.toString()).isEqualTo(
+        "JsonAdapter(String).nullSafe().wrapped([1, 2]).failOnNotFound().stacklessFailures()");
+  }
+
+  @Test public void stopAfterMatchLeavesTopLevelSourceUnread() throws Exception {
+    JsonAdapter<String> adapter = moshi.adapter(String.class,
+        Collections.singleton(Wrapped.Factory.create(true, true, "data", "status")));
+
+    Buffer source = new Buffer().writeUtf8("{\"data\":{\"status\":\"OK\",\"debug\":[1,");
+    JsonReader reader = JsonReader.of(source);
+    assertThat(adapter.fromJson(reader)).isEqualTo("OK");
+    // Trailing keys were not tokenized, even though they are malformed.
+    assertThat(source.readUtf8()).isEqualTo(",\"debug\":[1,");
+  }
+
+  @Test public void stopAfterMatchDrainsWhenNested() throws Exception {
+    JsonAdapter<Data6> adapter = moshi.adapter(Data6.class);
+
+    Data6 fromJson = adapter.fromJson("{\n"
+        + "  \"str\": {\n"
+        + "    \"1\": \"nested\",\n"
+        + "    \"2\": \"skipped\"\n"
+        + "  },\n"
+        + "  \"val\": 3\n"
+        + "}");
+    assertThat(fromJson.str).isEqualTo("nested");
+    assertThat(fromJson.val).isEqualTo(3);
+  }
+
+  @Test public void indexSegment() throws Exception {
+    JsonAdapter<Data1> adapter = moshi.adapter(Data1.class,
+        Collections.singleton(Wrapped.Factory.create("results", "[1]", "item")));
+
+    Data1 fromJson = adapter.fromJson("{\n"
+        + "  \"results\": [\n"
+        + "    {\"item\": {\"str\": \"skipped\", \"val\": \"not decoded\"}},\n"
+        + "    {\"item\": {\"str\": \"second\", \"val\": 2}},\n"
+        + "    {\"item\": {\"str\": \"third\", \"val\": 3}}\n"
+        + "  ],\n"
+        + "  \"paging\": null\n"
+        + "}");
+    assertThat(fromJson.str).isEqualTo("second");
+    assertThat(fromJson.val).isEqualTo(2);
+
+    String toJson = adapter.toJson(fromJson);
+    assertThat(toJson).isEqualTo("{\"results\":[{\"item\":{\"str\":\"second\",\"val\":2}}]}");
+  }
+
+  @Test public void escapedIndexSegmentIsAnObjectKey() throws Exception {
+    JsonAdapter<String> adapter = moshi.adapter(String.class,
+        Collections.singleton(Wrapped.Factory.create("data", "[1]", "\\[*]", "\\x")));
+
+    String fromJson = adapter.fromJson("{\"data\": [\"skipped\", {\"[*]\": {\"\\\\x\": \"a\"}}]}");
+    assertThat(fromJson).isEqualTo("a");
+    assertThat(adapter.toJson("a")).isEqualTo("{\"data\":[{\"[*]\":{\"\\\\x\":\"a\"}}]}");
+  }
+
+  @Test public void indexSegmentOutOfBounds() throws Exception {
+    JsonAdapter<String> adapter = moshi.adapter(String.class,
+        Collections.singleton(Wrapped.Factory.create("results", "[2]")));
+
+    try {
+      adapter.fromJson("{\"results\": [\"one\", \"two\"]}");
+      fail();
+    } catch (JsonDataException e) {
+      assertThat(e).hasMessage("Wrapped Json expected at path: [results, [2]]. Actual: $.results");
+    }
+  }
+
+  @Test public void negativeIndexSegment() throws Exception {
+    JsonAdapter<Long> last = moshi.adapter(Long.class,
+        Collections.singleton(Wrapped.Factory.create("results", "[-1]", "id")));
+    JsonAdapter<Long> secondToLast = moshi.adapter(Long.class,
+        Collections.singleton(Wrapped.Factory.create("results", "[-2]", "id")));
+
+    String json = "{\n"
+        + "  \"results\": [\n"
+        + "    {\"id\": 1, \"extra\": [true, null, 1.5]},\n"
+        + "    {\"id\": 9007199254740993, \"extra\": {\"a\": \"b\"}},\n"
+        + "    {\"extra\": \"x\", \"id\": 3}\n"
+        + "  ],\n"
+        + "  \"trailing\": {}\n"
+        + "}";
+    assertThat(last.fromJson(json)).isEqualTo(3L);
+    assertThat(secondToLast.fromJson(json)).isEqualTo(9007199254740993L);
+
+    try {
+      last.fromJson("{\"results\": []}");
+      fail();
+    } catch (JsonDataException e) {
+      assertThat(e).hasMessage(
+          "Wrapped Json expected at path: [results, [-1], id]. Actual: $.results");
+    }
+  }
+
+  @Test public void wildcardSegment() throws Exception {
+    JsonAdapter<List<Data1>> adapter = moshi.adapter(
+        Types.newParameterizedType(List.class, Data1.class),
+        Collections.singleton(Wrapped.Factory.create("results", "[*]", "item")));
+
+    List<Data1> fromJson = adapter.fromJson("{\n"
+        + "  \"results\": [\n"
+        + "    {\"id\": 1, \"item\": {\"str\": \"one\", \"val\": 1}},\n"
+        + "    {\"item\": {\"str\": \"two\", \"val\": 2}, \"id\": 2}\n"
+        + "  ]\n"
+        + "}");
+    assertThat(fromJson).hasSize(2);
+    assertThat(fromJson.get(0).str).isEqualTo("one");
+    assertThat(fromJson.get(1).val).isEqualTo(2);
+
+    String toJson = adapter.toJson(fromJson);
+    assertThat(toJson).isEqualTo("{\"results\":["
+        + "{\"item\":{\"str\":\"one\",\"val\":1}},"
+        + "{\"item\":{\"str\":\"two\",\"val\":2}}"
+        + "]}");
+
+    assertThat(adapter.fromJson("{\"results\": []}")).isEmpty();
+  }
+
+  @Test public void wildcardSegmentRequiresList() throws Exception {
+    try {
+      moshi.adapter(String.class,
+          Collections.singleton(Wrapped.Factory.create("results", "[*]")));
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasMessage("Wrapped path [results, [*]] of class java.lang.String must "
+          + "contain a single [*] segment and be declared as a List or Collection.");
+    }
+  }
+
+  @Test public void invalidIndexSegments() throws Exception {
+    assertInvalidPath("Invalid segment [-0] in [results, [-0]]", "results", "[-0]");
+    assertInvalidPath("Invalid segment [99999999999] in [results, [99999999999]]",
+        "results", "[99999999999]");
+  }
+
+  private void assertInvalidPath(String message, String... path) {
+    try {
+      moshi.adapter(String.class, Collections.singleton(Wrapped.Factory.create(path)));
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasMessage(message);
+    }
+  }
+
   @Test public void fromJsonDoesNotSwallowIOExceptions() throws Exception {
     JsonAdapter<Data4> adapter = moshi.adapter(Data4.class);
 
@@ -310,6 +520,11 @@ public final class WrappedJsonAdapterTest {
         Collections.singleton(Wrapped.Factory.create(false, "1", "2")));
     assertThat(failingAdapter.toString())
         .isEqualTo("JsonAdapter(String).nullSafe().wrapped([1, 2])");
+
+    JsonAdapter<String> stoppingAdapter = moshi.adapter(String.class,
+        Collections.singleton(Wrapped.Factory.create(false, true, "1", "2")));
+    assertThat(stoppingAdapter.toString())
+        .isEqualTo("JsonAdapter(String).nullSafe().wrapped([1, 2]).stopAfterMatch()");
   }
 
   @Test
@@ -370,6 +585,11 @@ public final class WrappedJsonAdapterTest {
   private static class Data5 {
     @WrappedDelegate String str;
   }
+  private static class Data6 {
+    @Wrapped(path = "1", stopAfterMatch = true) String str;
+    int val;
+  }
+
   private static class Throws {
   }
 